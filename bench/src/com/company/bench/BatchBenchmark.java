@@ -0,0 +1,86 @@
+package com.company.bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.company.search.Algorithm;
+import com.company.search.BatchRouter;
+import com.company.search.Grid;
+import com.company.search.SearchResult;
+
+/**
+ * Measures the throughput of BatchRouter, in queries per second, for a batch
+ * of queries between random free cells of a random grid, with pools
+ * of different sizes. With enough cores the throughput should grow
+ * almost linearly with the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    private static final int QUERIES = 256;
+
+    @Param({"A_STAR", "JPS"})
+    public Algorithm algorithm;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"512"})
+    public int size;
+
+    private ForkJoinPool pool;
+    private BatchRouter router;
+    private final int[] starts = new int[QUERIES];
+    private final int[] targets = new int[QUERIES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Grid grid = SearchBenchmark.randomGrid(size);
+        Random random = new Random(size);
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = randomFreeCell(grid, random);
+            targets[i] = randomFreeCell(grid, random);
+        }
+        pool = new ForkJoinPool(threads);
+        router = new BatchRouter(grid, algorithm, true, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private static int randomFreeCell(Grid grid, Random random) {
+        int id;
+        do
+            id = random.nextInt(grid.size());
+        while (grid.isObstacle(id));
+        return id;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public SearchResult[] route() {
+        return router.route(starts, targets);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+} // end class BatchBenchmark
@@ -0,0 +1,125 @@
+package com.company.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.company.MyMaze;
+import com.company.search.Algorithm;
+import com.company.search.Grid;
+import com.company.search.GridSearch;
+import com.company.search.SearchResult;
+
+/**
+ * Measures one complete search, from the robot at the bottom left corner
+ * to the target at the top right corner, for every algorithm, with and
+ * without diagonal movements, on empty, random, weighted and maze grids.
+ *
+ * The grid and the search are built once per trial, so only the search
+ * itself is measured, including the reset of its state.
+ * Throughput gives searches per second, SampleTime the percentiles
+ * of the latency and the GC profiler the bytes allocated per search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    /**
+     * The kinds of grids
+     */
+    public enum Map {
+        EMPTY,  // no obstacles
+        RANDOM,   // 25% of the cells are obstacles
+        WEIGHTED, // the random grid, with a cost from 1 to 9 in every cell
+        MAZE      // a maze generated by MyMaze
+    }
+
+    @Param({"DFS", "BFS", "A_STAR", "GREEDY", "DIJKSTRA", "DIAL"})
+    public Algorithm algorithm;
+
+    @Param({"false", "true"})
+    public boolean diagonal;
+
+    @Param({"41", "256", "1024", "4096"})
+    public int size;
+
+    @Param({"EMPTY", "RANDOM", "WEIGHTED", "MAZE"})
+    public Map map;
+
+    private GridSearch search;
+    private int start;
+    private int target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Grid grid;
+        switch (map) {
+            case RANDOM:
+                grid = randomGrid(size);
+                break;
+            case WEIGHTED:
+                grid = randomGrid(size);
+                Random random = new Random(size);
+                for (int id = 0; id < grid.size(); id++)
+                    grid.setCost(id, 1 + random.nextInt(9));
+                break;
+            case MAZE:
+                // the maze has an odd number of rows and columns
+                MyMaze maze = new MyMaze((size - 1) / 2);
+                grid = new Grid(maze.getGridDimensionX(), maze.getGridDimensionY());
+                maze.copyTo(grid);
+                break;
+            default:
+                grid = new Grid(size, size);
+        }
+        // the same cells the application uses for the robot and the target
+        start = grid.id(grid.rows() - 2, 1);
+        target = grid.id(1, grid.columns() - 2);
+        grid.setObstacle(start, false);
+        grid.setObstacle(target, false);
+        search = algorithm.create(grid, diagonal);
+    }
+
+    /**
+     * Returns a grid where 25% of the cells are obstacles and the target
+     * can be reached from the robot, even without diagonal movements.
+     * The seeds are tried in the same order, so every algorithm gets the same grid.
+     */
+    static Grid randomGrid(int size) {
+        Grid grid = new Grid(size, size);
+        int start = grid.id(size - 2, 1);
+        int target = grid.id(1, size - 2);
+        GridSearch bfs = Algorithm.BFS.create(grid, false);
+        for (long seed = size; ; seed++) {
+            Random random = new Random(seed);
+            for (int id = 0; id < grid.size(); id++)
+                grid.setObstacle(id, id != start && id != target && random.nextInt(4) == 0);
+            if (bfs.search(start, target).found())
+                return grid;
+        }
+    } // end randomGrid()
+
+    @Benchmark
+    public SearchResult search() {
+        return search.search(start, target);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SearchBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+} // end class SearchBenchmark
@@ -0,0 +1,197 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import com.company.search.Grid;
+import com.company.search.GridFile;
+
+/**
+ * Generator of random mazes one row at a time, with Eller's algorithm.
+ * Only the current row of cells is kept in memory, so the height of the
+ * maze is limited only by where its rows go: a grid, a grid file, or
+ * anything else that takes them.
+ *
+ * The maze is drawn like MyMaze: (2 * height + 1) rows and
+ * (2 * width + 1) columns, with the cells at odd rows and columns.
+ * Every cell of a row has the label of its set, the cells it is already
+ * connected with through the rows above. Neighbors of different sets may
+ * be joined, and every set must go on to the next row at least once,
+ * so the maze is perfect: every two cells are joined by exactly one path.
+ */
+public class EllerMaze {
+
+    /**
+     * Receives the rows of the output grid, from the top, true for every wall
+     */
+    public interface RowSink {
+        void row(boolean[] walls) throws IOException;
+    }
+
+    private final int width;                 // the number of cells of a row
+    private final SplittableRandom random;   // The random object
+
+    // the set of every cell of the current row, and the union-find
+    // of the sets, whose labels are always less than width
+    private final int[] set;
+    private final int[] parent;
+    // for every set of the row, the number of its cells that have been seen,
+    // and whether one of them goes down, or else the one chosen to go down
+    private final int[] seen;
+    private final boolean[] down;
+    private final int[] chosen;
+    // the new label of every old one, when the labels are renumbered
+    private final int[] label;
+
+    // the two rows of the output grid for every row of cells
+    private final boolean[] cellRow;
+    private final boolean[] wallRow;
+
+    public EllerMaze(int width) {
+        this(width, new SplittableRandom());
+    }
+
+    /**
+     * Creates the generator of the given seed: the same seed gives the same maze
+     */
+    public EllerMaze(int width, long seed) {
+        this(width, new SplittableRandom(seed));
+    }
+
+    private EllerMaze(int width, SplittableRandom random) {
+        if (width <= 0 || width > (Integer.MAX_VALUE - 1) / 2)
+            throw new IllegalArgumentException("Invalid maze width: " + width);
+        this.width = width;
+        this.random = random;
+        set = new int[width];
+        parent = new int[width];
+        seen = new int[width];
+        down = new boolean[width];
+        chosen = new int[width];
+        label = new int[width];
+        cellRow = new boolean[2 * width + 1];
+        wallRow = new boolean[2 * width + 1];
+    }
+
+    // the number of columns of the output grid
+    public int getGridDimensionY() {
+        return 2 * width + 1;
+    }
+
+    /**
+     * Generates a maze of 'height' rows of cells and gives
+     * its 2 * height + 1 rows to the sink, from the top
+     */
+    public void generate(int height, RowSink sink) throws IOException {
+        if (height <= 0 || height > (Integer.MAX_VALUE - 1) / 2)
+            throw new IllegalArgumentException("Invalid maze height: " + height);
+        // the outer wall at the top
+        Arrays.fill(wallRow, true);
+        sink.row(wallRow);
+        // every cell of the first row has a set of its own
+        for (int y = 0; y < width; y++)
+            set[y] = y;
+        int labels = width;
+        for (int x = 0; x < height; x++) {
+            boolean last = x == height - 1;
+            for (int i = 0; i < labels; i++)
+                parent[i] = i;
+            // 1. join neighbors of different sets: at random, or all of them in the last row
+            Arrays.fill(cellRow, true);
+            for (int y = 0; y < width; y++) {
+                cellRow[2 * y + 1] = false;
+                if (y + 1 < width) {
+                    int a = find(set[y]), b = find(set[y + 1]);
+                    if (a != b && (last || random.nextBoolean())) {
+                        parent[b] = a;
+                        cellRow[2 * y + 2] = false;
+                    }
+                }
+            }
+            sink.row(cellRow);
+            // 2. some cells of every set go down, at least one per set
+            Arrays.fill(wallRow, true);
+            if (!last) {
+                for (int i = 0; i < labels; i++) {
+                    seen[i] = 0;
+                    down[i] = false;
+                }
+                for (int y = 0; y < width; y++) {
+                    int s = find(set[y]);
+                    set[y] = s;
+                    if (random.nextBoolean()) {
+                        down[s] = true;
+                        wallRow[2 * y + 1] = false;
+                    } else if (random.nextInt(++seen[s]) == 0) {
+                        chosen[s] = y; // each cell that does not go down is chosen with equal chance
+                    }
+                }
+                for (int y = 0; y < width; y++) {
+                    int s = set[y];
+                    if (!down[s] && chosen[s] == y)
+                        wallRow[2 * y + 1] = false;
+                }
+                // 3. the cells below keep the sets of the cells that went down,
+                // renumbered from 0, and the others get new sets
+                Arrays.fill(label, 0, labels, -1);
+                labels = 0;
+                for (int y = 0; y < width; y++)
+                    if (!wallRow[2 * y + 1]) {
+                        if (label[set[y]] == -1)
+                            label[set[y]] = labels++;
+                        set[y] = label[set[y]];
+                    } else {
+                        set[y] = -1;
+                    }
+                for (int y = 0; y < width; y++)
+                    if (set[y] == -1)
+                        set[y] = labels++;
+            }
+            sink.row(wallRow);
+        }
+    } // end generate()
+
+    /**
+     * Returns the label that represents the set of the given label
+     */
+    private int find(int s) {
+        while (parent[s] != s) {
+            parent[s] = parent[parent[s]];
+            s = parent[s];
+        }
+        return s;
+    }
+
+    /**
+     * Writes a maze of 'height' rows of cells to a grid file,
+     * without keeping more than one row in memory
+     */
+    public void writeTo(Path file, int height) throws IOException {
+        try (GridFile.Writer writer = GridFile.writer(file, 2 * height + 1, getGridDimensionY())) {
+            generate(height, writer::writeRow);
+        }
+    }
+
+    /**
+     * Draws a maze as large as the grid, which must have
+     * an odd number of rows and 2 * width + 1 columns
+     */
+    public void copyTo(Grid grid) {
+        if (grid.columns() != getGridDimensionY() || grid.rows() % 2 == 0 || grid.rows() < 3)
+            throw new IllegalArgumentException("Grid of " + grid.rows() + "x" + grid.columns()
+                    + " for a maze of width " + width);
+        int[] row = {0};
+        try {
+            generate(grid.rows() / 2, walls -> {
+                for (int c = 0; c < walls.length; c++)
+                    grid.setObstacle(row[0], c, walls[c]);
+                row[0]++;
+            });
+        } catch (IOException e) {
+            throw new AssertionError(e); // the grid does not throw it
+        }
+    } // end copyTo()
+
+} // end class EllerMaze
@@ -2,15 +2,20 @@ package com.company;
 
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Random;
-import java.util.Stack;
 import javax.swing.*;
 
+import com.company.search.Algorithm;
+import com.company.search.DStarLiteSearch;
+import com.company.search.Grid;
+import com.company.search.GridSearch;
+import com.company.search.HpaStarSearch;
+import com.company.search.SearchListener;
+import com.company.search.SearchTrace;
+
 
 
 public class Main {
@@ -35,183 +40,12 @@ public class Main {
      * and contains all the functionality of the program.
      */
     public static class MazePanel extends JPanel {
-        private class MyMaze {
-            private int dimensionX, dimensionY;         // dimension of maze
-            private int gridDimensionX, gridDimensionY; // dimension of output grid
-            private char[][] mazeGrid;                  // output grid
-            private Cell[][] cells;                     // 2d array of Cells
-            private Random random = new Random();       // The random object
-
-            // initialize with x and y the same
-            public MyMaze(int aDimension) {
-                this(aDimension, aDimension);
-            }
-            // constructor
-            public MyMaze(int xDimension, int yDimension) {
-                dimensionX = xDimension;
-                dimensionY = yDimension;
-                gridDimensionX = xDimension * 2 + 1;
-                gridDimensionY = yDimension * 2 + 1;
-                mazeGrid = new char[gridDimensionX][gridDimensionY];
-                init();
-                generateMaze();
-            }
-
-            private void init() {
-                // create cells
-                cells = new Cell[dimensionX][dimensionY];
-                for (int x = 0; x < dimensionX; x++)
-                    for (int y = 0; y < dimensionY; y++)
-                        cells[x][y] = new Cell(x, y, false); // create cell (see Cell constructor)
-            }
-
-            // inner class to represent a cell
-            private class Cell {
-                int x, y; // coordinates
-                // cells this cell is connected to
-                ArrayList<Cell> neighbors = new ArrayList<>();
-                // impassable cell
-                boolean wall = true;
-                // if true, has yet to be used in generation
-                boolean open = true;
-                // construct Cell at x, y
-                Cell(int x, int y) {
-                    this(x, y, true);
-                }
-                // construct Cell at x, y and with whether it isWall
-                Cell(int x, int y, boolean isWall) {
-                    this.x = x;
-                    this.y = y;
-                    this.wall = isWall;
-                }
-                // add a neighbor to this cell, and this cell as a neighbor to the other
-                void addNeighbor(Cell other) {
-                    if (!this.neighbors.contains(other)) // avoid duplicates
-                        this.neighbors.add(other);
-                    if (!other.neighbors.contains(this)) // avoid duplicates
-                        other.neighbors.add(this);
-                }
-                // used in updateGrid()
-                boolean isCellBelowNeighbor() {
-                    return this.neighbors.contains(new Cell(this.x, this.y + 1));
-                }
-                // used in updateGrid()
-                boolean isCellRightNeighbor() {
-                    return this.neighbors.contains(new Cell(this.x + 1, this.y));
-                }
-                // useful Cell equivalence
-                @Override
-                public boolean equals(Object other) {
-                    if (!(other instanceof Cell)) return false;
-                    Cell otherCell = (Cell) other;
-                    return (this.x == otherCell.x && this.y == otherCell.y);
-                }
-
-                // should be overridden with equals
-                @Override
-                public int hashCode() {
-                    // random hash code method designed to be usually unique
-                    return this.x + this.y * 256;
-                }
-
-            }
-            // generate from upper left (In computing the y increases down often)
-            private void generateMaze() {
-                generateMaze(0, 0);
-            }
-            // generate the maze from coordinates x, y
-            private void generateMaze(int x, int y) {
-                generateMaze(getCell(x, y)); // generate from Cell
-            }
-            private void generateMaze(Cell startAt) {
-                // don't generate from cell not there
-                if (startAt == null) return;
-                startAt.open = false; // indicate cell closed for generation
-                ArrayList<Cell> cellsList = new ArrayList<>();
-                cellsList.add(startAt);
-
-                while (!cellsList.isEmpty()) {
-                    Cell cell;
-                    // this is to reduce but not completely eliminate the number
-                    // of long twisting halls with short easy to detect branches
-                    // which results in easy mazes
-                    if (random.nextInt(10)==0)
-                        cell = cellsList.remove(random.nextInt(cellsList.size()));
-                    else cell = cellsList.remove(cellsList.size() - 1);
-                    // for collection
-                    ArrayList<Cell> neighbors = new ArrayList<>();
-                    // cells that could potentially be neighbors
-                    Cell[] potentialNeighbors = new Cell[]{
-                            getCell(cell.x + 1, cell.y),
-                            getCell(cell.x, cell.y + 1),
-                            getCell(cell.x - 1, cell.y),
-                            getCell(cell.x, cell.y - 1)
-                    };
-                    for (Cell other : potentialNeighbors) {
-                        // skip if outside, is a wall or is not opened
-                        if (other==null || other.wall || !other.open)
-                            continue;
-                        neighbors.add(other);
-                    }
-                    if (neighbors.isEmpty()) continue;
-                    // get random cell
-                    Cell selected = neighbors.get(random.nextInt(neighbors.size()));
-                    // add as neighbor
-                    selected.open = false; // indicate cell closed for generation
-                    cell.addNeighbor(selected);
-                    cellsList.add(cell);
-                    cellsList.add(selected);
-                }
-                updateGrid();
-            }
-            // used to get a Cell at x, y; returns null out of bounds
-            public Cell getCell(int x, int y) {
-                try {
-                    return cells[x][y];
-                } catch (ArrayIndexOutOfBoundsException e) { // catch out of bounds
-                    return null;
-                }
-            }
-            // draw the maze
-            public void updateGrid() {
-                char backChar = ' ', wallChar = 'X', cellChar = ' ';
-                // fill background
-                for (int x = 0; x < gridDimensionX; x ++)
-                    for (int y = 0; y < gridDimensionY; y ++)
-                        mazeGrid[x][y] = backChar;
-                // build walls
-                for (int x = 0; x < gridDimensionX; x ++)
-                    for (int y = 0; y < gridDimensionY; y ++)
-                        if (x % 2 == 0 || y % 2 == 0)
-                            mazeGrid[x][y] = wallChar;
-                // make meaningful representation
-                for (int x = 0; x < dimensionX; x++)
-                    for (int y = 0; y < dimensionY; y++) {
-                        Cell current = getCell(x, y);
-                        int gridX = x * 2 + 1, gridY = y * 2 + 1;
-                        mazeGrid[gridX][gridY] = cellChar;
-                        if (current.isCellBelowNeighbor())
-                            mazeGrid[gridX][gridY + 1] = cellChar;
-                        if (current.isCellRightNeighbor())
-                            mazeGrid[gridX + 1][gridY] = cellChar;
-                    }
-            }
-        } // end nested class MyMaze
-
         /**
          * Helper class that represents the cell of the grid
          */
         private class Cell {
             int row;     // the row number of the cell(row 0 is the top)
             int col;     // the column number of the cell (Column 0 is the left)
-            double g;    // the value of the function g of A* and Greedy algorithms
-            double h;    // the value of the function h of A* and Greedy algorithms
-            double f;    // the value of the function h of A* and Greedy algorithms
-            double dist; // the distance of the cell from the initial position of the robot
-            // Ie the label that updates the Dijkstra's algorithm
-            Cell prev;   // Each state corresponds to a cell
-            // and each state has a predecessor which
-            // is stored in this variable
 
             public Cell(int row, int col){
                 this.row = row;
@@ -220,51 +54,36 @@ public class Main {
 
         } // end nested class Cell
 
-        /**
-         * Auxiliary class that specifies that the cells will be sorted
-         * according their 'f' field
-         */
-        private class CellComparatorByF implements Comparator<Cell>{
-            @Override
-            public int compare(Cell cell1, Cell cell2){
-                return Double.compare(cell1.f,cell2.f);
-            }
-        } // end nested class CellComparatorByF
-
-        /**
-         * Auxiliary class that specifies that the cells will be sorted
-         * according their 'dist' field
-         */
-        private class CellComparatorByDist implements Comparator<Cell>{
-            @Override
-            public int compare(Cell cell1, Cell cell2){
-                return Double.compare(cell1.dist,cell2.dist);
-            }
-        } // end nested class CellComparatorByDist
-
         /**
          * Class that handles mouse movements as we "paint"
          * obstacles or move the robot and/or target.
          */
-        private class MouseHandler implements MouseListener, MouseMotionListener {
+        private class MouseHandler implements MouseListener, MouseMotionListener, MouseWheelListener {
             private int cur_row, cur_col, cur_val;
+            private int panX, panY; // the last position of the mouse while panning
             @Override
             public void mousePressed(MouseEvent evt) {
-                int row = (evt.getY() - 10) / squareSize;
-                int col = (evt.getX() - 10) / squareSize;
+                // the right button moves the view
+                if (SwingUtilities.isRightMouseButton(evt)) {
+                    panX = evt.getX();
+                    panY = evt.getY();
+                    return;
+                }
+                int row = rowAt(evt.getY());
+                int col = colAt(evt.getX());
                 if (row >= 0 && row < rows && col >= 0 && col < columns) {
                     if (realTime ? true : !found && !searching){
-                        if (realTime)
+                        if (realTime && !incremental())
                             fillGrid();
                         cur_row = row;
                         cur_col = col;
-                        cur_val = grid[row][col];
+                        cur_val = cellAt(row, col);
                         if (cur_val == EMPTY)
-                            grid[row][col] = OBST;
+                            setCell(row, col, OBST);
                         if (cur_val == OBST)
-                            grid[row][col] = EMPTY;
-                        if (realTime && dijkstra.isSelected())
-                            initializeDijkstra();
+                            setCell(row, col, EMPTY);
+                        if (cur_val == EMPTY || cur_val == OBST)
+                            obstacleEdited(row, col);
                     }
                     if (realTime)
                         realTimeAction();
@@ -275,16 +94,22 @@ public class Main {
 
             @Override
             public void mouseDragged(MouseEvent evt) {
-                int row = (evt.getY() - 10) / squareSize;
-                int col = (evt.getX() - 10) / squareSize;
+                if (SwingUtilities.isRightMouseButton(evt)) {
+                    pan((panY - evt.getY()) / squareSize, (panX - evt.getX()) / squareSize);
+                    panX = evt.getX();
+                    panY = evt.getY();
+                    return;
+                }
+                int row = rowAt(evt.getY());
+                int col = colAt(evt.getX());
                 if (row >= 0 && row < rows && col >= 0 && col < columns){
                     if (realTime ? true : !found && !searching){
-                        if (realTime)
+                        if (realTime && !incremental())
                             fillGrid();
                         if (!(row == cur_row && col == cur_col) && (cur_val == ROBOT || cur_val == TARGET)){
-                            int new_val = grid[row][col];
+                            int new_val = cellAt(row, col);
                             if (new_val == EMPTY){
-                                grid[row][col] = cur_val;
+                                setCell(row, col, cur_val);
                                 if (cur_val == ROBOT) {
                                     robotStart.row = row;
                                     robotStart.col = col;
@@ -292,15 +117,16 @@ public class Main {
                                     targetPos.row = row;
                                     targetPos.col = col;
                                 }
-                                grid[cur_row][cur_col] = new_val;
+                                setCell(cur_row, cur_col, new_val);
+                                endpointMoved(cur_val, cur_row, cur_col);
                                 cur_row = row;
                                 cur_col = col;
                                 cur_val = grid[row][col];
                             }
-                        } else if (grid[row][col] != ROBOT && grid[row][col] != TARGET)
-                            grid[row][col] = OBST;
-                        if (realTime && dijkstra.isSelected())
-                            initializeDijkstra();
+                        } else if (grid[row][col] != ROBOT && grid[row][col] != TARGET && grid[row][col] != OBST) {
+                            setCell(row, col, OBST);
+                            obstacleEdited(row, col);
+                        }
                     }
                     if (realTime)
                         realTimeAction();
@@ -320,6 +146,13 @@ public class Main {
             @Override
             public void mouseClicked(MouseEvent evt) { }
 
+            // the wheel zooms in and out around the mouse
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent evt) {
+                double size = evt.getWheelRotation() < 0 ? squareSize * ZOOM_STEP : squareSize / ZOOM_STEP;
+                zoom(size, evt.getX(), evt.getY());
+            }
+
         } // end nested class MouseHandler
 
         /**
@@ -329,7 +162,7 @@ public class Main {
             @Override
             public void actionPerformed(ActionEvent evt) {
                 checkTermination();
-                repaint();
+                repaintChanged();
                 if (endOfSearch)
                 {
                     animation = false;
@@ -338,6 +171,19 @@ public class Main {
             }
         } // end nested class RepaintAction
 
+        /**
+         * The class that paints the cells whose state
+         * is changed by the search
+         */
+        private class SearchDisplay implements SearchListener {
+            @Override
+            public void cellChanged(int id, byte state) {
+                showState(id, state);
+                if (trace != null)
+                    trace.cellChanged(id, state);
+            }
+        } // end nested class SearchDisplay
+
         /*
          **********************************************************
          *          Constants of MazePanel class
@@ -345,7 +191,6 @@ public class Main {
          */
 
         private final static int
-                INFINITY = Integer.MAX_VALUE, // The representation of the infinite
                 EMPTY    = 0,  // empty cell
                 OBST     = 1,  // cell with obstacle
                 ROBOT    = 2,  // the position of the robot
@@ -354,6 +199,25 @@ public class Main {
                 CLOSED   = 5,  // cells that form the CLOSED SET
                 ROUTE    = 6;  // cells that form the robot-to-target path
 
+        // The colors of the cells, in the order of the values above
+        private final static IndexColorModel CELL_COLORS = cellColors(
+                Color.WHITE, Color.BLACK, Color.RED, Color.GREEN, Color.BLUE, Color.CYAN, Color.YELLOW);
+
+        // The tips of the arrows form 20 degrees angles with the axis of the arrow
+        private final static double
+                TIP_COS = Math.cos(Math.toRadians(20)),
+                TIP_SIN = Math.sin(Math.toRadians(20));
+
+        private final static int
+                VIEW_X    = 10,  // the left side of the view of the grid
+                VIEW_Y    = 10,  // the top side of the view of the grid
+                VIEW_SIZE = 500; // the width and height of the view in pixels
+
+        private final static double
+                MAX_SQUARE_SIZE = 64,    // the largest cell size in pixels
+                DETAIL_SIZE     = 4,     // the smallest cell size with lines between cells and arrows
+                ZOOM_STEP       = 1.25;  // the zoom factor of one turn of the mouse wheel
+
         // Messages to the user
         private final static String
                 MSG_DRAW_AND_SELECT =
@@ -372,16 +236,33 @@ public class Main {
         JSpinner rowsSpinner, columnsSpinner; // Spinners for entering # of rows and columns
 
         int rows    = 41,           // the number of rows of the grid
-                columns = 41,           // the number of columns of the grid
-                squareSize = 500/rows;  // the cell size in pixels
+                columns = 41;           // the number of columns of the grid
 
+        double squareSize = VIEW_SIZE/rows; // the cell size in pixels (the zoom)
+        double viewRow, viewCol;            // the cell at the top left corner of the view
 
-        int arrowSize = squareSize/2; // the size of the tip of the arrow
+        int arrowSize = (int)squareSize/2; // the size of the tip of the arrow
         // pointing the predecessor cell
-        ArrayList<Cell> openSet   = new ArrayList();// the OPEN SET
-        ArrayList<Cell> closedSet = new ArrayList();// the CLOSED SET
-        ArrayList<Cell> graph     = new ArrayList();// the set of vertices of the graph
-        // to be explored by Dijkstra's algorithm
+
+        // One pixel for every cell, with the color of its value.
+        // The view shows the visible part of this image scaled by the zoom,
+        // so painting costs the same for any size of the grid.
+        BufferedImage cells;
+        byte[] pixels;     // the pixels of the image, row after row
+
+        // The cells changed by the search since the last repaint.
+        // If they are too many to fit, changedCount is -1 and the whole view is repainted.
+        int[] changed = new int[1024];
+        int changedCount;
+        Grid map;          // the obstacles of the grid, as seen by the search
+        GridSearch search; // the search in progress, created for the selected algorithm
+        int[] route = new int[0]; // the cells of the route to the target
+        // the clusters of HPA*, kept in Real-Time mode while the user edits the obstacles
+        HpaStarSearch hierarchy;
+        // The record of the search of Step-by-Step and Animation modes, and the player
+        // that shows it again after 'Back', up to where the search has come.
+        SearchTrace trace;
+        SearchTrace.Player replay;
 
         Cell robotStart; // the initial position of the robot
         Cell targetPos;  // the position of the target
@@ -389,10 +270,10 @@ public class Main {
         JLabel message;  // message to the user
 
         // basic buttons
-        JButton resetButton, mazeButton, clearButton, realTimeButton, stepButton, animationButton, aboutButton;
+        JButton resetButton, mazeButton, clearButton, realTimeButton, stepButton, stepBackButton, animationButton, aboutButton;
 
         // buttons for selecting the algorithm
-        JRadioButton dfs, bfs, aStar, greedy, dijkstra;
+        JRadioButton dfs, bfs, aStar, greedy, dijkstra, jps, hpa;
 
         // the slider for adjusting the speed of the animation
         JSlider slider;
@@ -401,6 +282,8 @@ public class Main {
         JCheckBox diagonal;
         // Draw arrows to predecessors
         JCheckBox drawArrows;
+        // Search from both the robot and the target?
+        JCheckBox bidirectional;
 
         int[][] grid;        // the grid
         boolean realTime;    // Solution is displayed instantly
@@ -409,7 +292,6 @@ public class Main {
         boolean endOfSearch; // flag that the search came to an end
         boolean animation;   // flag that the animation is running
         int delay;           // time delay of animation (in msec)
-        int expanded;        // the number of nodes that have been expanded
 
         // the object that controls the animation
         RepaintAction action = new RepaintAction();
@@ -424,6 +306,7 @@ public class Main {
             MouseHandler listener = new MouseHandler();
             super.addMouseListener(listener);
             super.addMouseMotionListener(listener);
+            super.addMouseWheelListener(listener);
 
             super.setBorder(BorderFactory.createMatteBorder(2,2,2,2,Color.blue));
             super.setPreferredSize( new Dimension(width,height) );
@@ -436,22 +319,22 @@ public class Main {
             message.setForeground(Color.blue);
             message.setFont(new Font("Helvetica",Font.PLAIN,16));
 
-            JLabel rowsLbl = new JLabel("# of rows (5-83):", JLabel.RIGHT);
-            rowsLbl.setFont(new Font("Helvetica",Font.PLAIN,13));
+            JLabel rowsLbl = new JLabel("Rows (5-4096):", JLabel.RIGHT);
+            rowsLbl.setFont(new Font("Helvetica",Font.PLAIN,12));
 
             SpinnerModel rowModel = new SpinnerNumberModel(41, //initial value
-                    5,  //min
-                    83, //max
-                    1); //step
+                    5,    //min
+                    4096, //max
+                    1);   //step
             rowsSpinner = new JSpinner(rowModel);
 
-            JLabel columnsLbl = new JLabel("# of columns (5-83):", JLabel.RIGHT);
-            columnsLbl.setFont(new Font("Helvetica",Font.PLAIN,13));
+            JLabel columnsLbl = new JLabel("Columns (5-4096):", JLabel.RIGHT);
+            columnsLbl.setFont(new Font("Helvetica",Font.PLAIN,12));
 
             SpinnerModel colModel = new SpinnerNumberModel(41, //initial value
-                    5,  //min
-                    83, //max
-                    1); //step
+                    5,    //min
+                    4096, //max
+                    1);   //step
             columnsSpinner = new JSpinner(colModel);
 
             resetButton = new JButton("New grid");
@@ -485,6 +368,13 @@ public class Main {
                     ("The search is performed step-by-step for every click");
             stepButton.addActionListener(this::stepButtonActionPerformed);
 
+            stepBackButton = new JButton("Back");
+            stepBackButton.setBackground(Color.lightGray);
+            stepBackButton.setMargin(new Insets(2, 2, 2, 2));
+            stepBackButton.setToolTipText
+                    ("Undoes the last step, without searching again");
+            stepBackButton.addActionListener(this::stepBackButtonActionPerformed);
+
             animationButton = new JButton("Animation");
             animationButton.setBackground(Color.lightGray);
             animationButton.setToolTipText
@@ -525,6 +415,14 @@ public class Main {
             dijkstra.setToolTipText("Dijkstra's algorithm");
             algoGroup.add(dijkstra);
 
+            jps = new JRadioButton("JPS");
+            jps.setToolTipText("Jump Point Search algorithm");
+            algoGroup.add(jps);
+
+            hpa = new JRadioButton("HPA*");
+            hpa.setToolTipText("Hierarchical A* on clusters of the grid");
+            algoGroup.add(hpa);
+
             JPanel algoPanel = new JPanel();
             algoPanel.setBorder(javax.swing.BorderFactory.
                     createTitledBorder(javax.swing.BorderFactory.createEtchedBorder(),
@@ -541,6 +439,10 @@ public class Main {
                     JCheckBox("Arrows to predecessors");
             drawArrows.setToolTipText("Draw arrows to predecessors");
 
+            bidirectional = new
+                    JCheckBox("Bidirectional search");
+            bidirectional.setToolTipText("BFS, Dijkstra and A* search from both the robot and the target");
+
             JLabel robot = new JLabel("Robot", JLabel.CENTER);
             robot.setForeground(Color.red);
             robot.setFont(new Font("Helvetica",Font.PLAIN,14));
@@ -568,6 +470,7 @@ public class Main {
             super.add(clearButton);
             super.add(realTimeButton);
             super.add(stepButton);
+            super.add(stepBackButton);
             super.add(animationButton);
             super.add(delayLbl);
             super.add(slider);
@@ -576,9 +479,12 @@ public class Main {
             super.add(aStar);
             super.add(greedy);
             super.add(dijkstra);
+            super.add(jps);
+            super.add(hpa);
             super.add(algoPanel);
             super.add(diagonal);
             super.add(drawArrows);
+            super.add(bidirectional);
             super.add(robot);
             super.add(target);
             super.add(frontier);
@@ -586,15 +492,16 @@ public class Main {
 
             // we regulate the sizes and positions
             message.setBounds(0, 515, 500, 23);
-            rowsLbl.setBounds(520, 5, 130, 25);
-            rowsSpinner.setBounds(655, 5, 35, 25);
-            columnsLbl.setBounds(520, 35, 130, 25);
-            columnsSpinner.setBounds(655, 35, 35, 25);
+            rowsLbl.setBounds(515, 5, 120, 25);
+            rowsSpinner.setBounds(638, 5, 52, 25);
+            columnsLbl.setBounds(515, 35, 120, 25);
+            columnsSpinner.setBounds(638, 35, 52, 25);
             resetButton.setBounds(520, 65, 170, 25);
             mazeButton.setBounds(520, 95, 170, 25);
             clearButton.setBounds(520, 125, 170, 25);
             realTimeButton.setBounds(520, 155, 170, 25);
-            stepButton.setBounds(520, 185, 170, 25);
+            stepButton.setBounds(520, 185, 115, 25);
+            stepBackButton.setBounds(640, 185, 50, 25);
             animationButton.setBounds(520, 215, 170, 25);
             delayLbl.setBounds(520, 245, 170, 10);
             slider.setBounds(520, 255, 170, 25);
@@ -603,14 +510,17 @@ public class Main {
             aStar.setBounds(530, 325, 70, 25);
             greedy.setBounds(600, 325, 85, 25);
             dijkstra.setBounds(530, 350, 85, 25);
+            jps.setBounds(615, 350, 70, 25);
+            hpa.setBounds(530, 375, 70, 25);
             algoPanel.setLocation(520,280);
-            algoPanel.setSize(170, 100);
-            diagonal.setBounds(520, 385, 170, 25);
-            drawArrows.setBounds(520, 410, 170, 25);
-            robot.setBounds(520, 465, 80, 25);
-            target.setBounds(605, 465, 80, 25);
-            frontier.setBounds(520, 485, 80, 25);
-            closed.setBounds(605, 485, 80, 25);
+            algoPanel.setSize(170, 125);
+            diagonal.setBounds(520, 410, 170, 25);
+            drawArrows.setBounds(520, 435, 170, 25);
+            bidirectional.setBounds(520, 460, 170, 25);
+            robot.setBounds(520, 490, 80, 25);
+            target.setBounds(605, 490, 80, 25);
+            frontier.setBounds(520, 510, 80, 25);
+            closed.setBounds(605, 510, 80, 25);
 
 
             // we create the timer
@@ -633,18 +543,23 @@ public class Main {
                 rows -= 1;
             if (makeMaze && columns % 2 == 0)
                 columns -= 1;
-            squareSize = 500/(rows > columns ? rows : columns);
-            arrowSize = squareSize/2;
+            // the whole grid is visible at first
+            squareSize = fitSquareSize();
+            arrowSize = (int)squareSize/2;
+            viewRow = 0;
+            viewCol = 0;
             grid = new int[rows][columns];
+            cells = new BufferedImage(columns, rows, BufferedImage.TYPE_BYTE_INDEXED, CELL_COLORS);
+            pixels = ((DataBufferByte) cells.getRaster().getDataBuffer()).getData();
             robotStart = new Cell(rows-2,1);
             targetPos = new Cell(1,columns-2);
             fillGrid();
             if (makeMaze) {
                 MyMaze maze = new MyMaze(rows/2,columns/2);
-                for (int x = 0; x < maze.gridDimensionX; x++)
-                    for (int y = 0; y < maze.gridDimensionY; y++)
-                        if (maze.mazeGrid[x][y] == 'X')  // wallChar
-                            grid[x][y] = OBST;
+                for (int x = 0; x < maze.getGridDimensionX(); x++)
+                    for (int y = 0; y < maze.getGridDimensionY(); y++)
+                        if (maze.isWall(x, y))
+                            setCell(x, y, OBST);
             }
         } // end initializeGrid()
 
@@ -664,7 +579,7 @@ public class Main {
                 for (int r = 0; r < rows; r++)
                     for (int c = 0; c < columns; c++) {
                         if (grid[r][c] == FRONTIER || grid[r][c] == CLOSED || grid[r][c] == ROUTE)
-                            grid[r][c] = EMPTY;
+                            setCell(r, c, EMPTY);
                         if (grid[r][c] == ROBOT)
                             robotStart = new Cell(r,c);
                         if (grid[r][c] == TARGET)
@@ -674,28 +589,24 @@ public class Main {
             } else {
                 for (int r = 0; r < rows; r++)
                     for (int c = 0; c < columns; c++)
-                        grid[r][c] = EMPTY;
+                        setCell(r, c, EMPTY);
                 robotStart = new Cell(rows-2,1);
                 targetPos = new Cell(1,columns-2);
             }
-            if (aStar.isSelected() || greedy.isSelected()){
-                robotStart.g = 0;
-                robotStart.h = 0;
-                robotStart.f = 0;
-            }
-            expanded = 0;
             found = false;
             searching = false;
             endOfSearch = false;
 
-            // The first step of the other four algorithms is here
-            // 1. OPEN SET: = [So], CLOSED SET: = []
-            openSet.removeAll(openSet);
-            openSet.add(robotStart);
-            closedSet.removeAll(closedSet);
+            // The search is created again when the next one starts,
+            // because the obstacles or the algorithm may change until then.
+            search = null;
+            trace = null;
+            replay = null;
+            route = new int[0];
+            changedCount = 0;
 
-            grid[targetPos.row][targetPos.col] = TARGET;
-            grid[robotStart.row][robotStart.col] = ROBOT;
+            setCell(targetPos.row, targetPos.col, TARGET);
+            setCell(robotStart.row, robotStart.col, ROBOT);
             message.setText(MSG_DRAW_AND_SELECT);
             timer.stop();
             repaint();
@@ -712,8 +623,11 @@ public class Main {
             aStar.setEnabled(true);
             greedy.setEnabled(true);
             dijkstra.setEnabled(true);
+            jps.setEnabled(true);
+            hpa.setEnabled(true);
             diagonal.setEnabled(true);
             drawArrows.setEnabled(true);
+            bidirectional.setEnabled(true);
         } // end enableRadiosAndChecks()
 
         /**
@@ -726,8 +640,11 @@ public class Main {
             aStar.setEnabled(false);
             greedy.setEnabled(false);
             dijkstra.setEnabled(false);
+            jps.setEnabled(false);
+            hpa.setEnabled(false);
             diagonal.setEnabled(false);
             drawArrows.setEnabled(false);
+            bidirectional.setEnabled(false);
         } // end disableRadiosAndChecks()
 
         /**
@@ -780,10 +697,7 @@ public class Main {
                 return;
             realTime = true;
             searching = true;
-            // The Dijkstra's initialization should be done just before the
-            // start of search, because obstacles must be in place.
-            if (dijkstra.isSelected())
-                initializeDijkstra();
+            hierarchy = null;
             realTimeButton.setForeground(Color.red);
             disableRadiosAndChecks();
             realTimeAction();
@@ -793,11 +707,85 @@ public class Main {
          * Action performed during real-time search
          */
         public void realTimeAction() {
+            // The incremental search continues from its last result,
+            // so only the route is removed.
+            if (incremental()) {
+                for (int id : route)
+                    showState(id, search.state(id));
+                found = false;
+                endOfSearch = false;
+            }
             do
                 checkTermination();
             while (!endOfSearch);
         } // end of realTimeAction()
 
+        /**
+         * Returns true if the search of Real-Time mode is repaired
+         * after every change, instead of being performed again
+         */
+        private boolean incremental() {
+            return realTime && search instanceof DStarLiteSearch;
+        }
+
+        /**
+         * Returns the value of a cell without the marks of the search:
+         * the cells of the frontier, the closed set and the route are EMPTY.
+         */
+        private int cellAt(int r, int c) {
+            return grid[r][c] >= FRONTIER ? EMPTY : grid[r][c];
+        }
+
+        /**
+         * Tells the incremental search, or the clusters of HPA*,
+         * that the user added or removed an obstacle
+         */
+        private void obstacleEdited(int r, int c) {
+            if (!incremental() && !(realTime && hierarchy != null))
+                return;
+            int id = map.id(r, c);
+            map.setObstacle(id, grid[r][c] == OBST);
+            if (incremental())
+                ((DStarLiteSearch) search).obstacleChanged(id);
+            else
+                hierarchy.obstacleChanged(id);
+        } // end obstacleEdited()
+
+        /**
+         * Tells the incremental search that the user moved the robot
+         * or the target away from cell (r,c)
+         */
+        private void endpointMoved(int value, int r, int c) {
+            if (!incremental())
+                return;
+            if (value == ROBOT) {
+                ((DStarLiteSearch) search).moveStart(map.id(robotStart.row, robotStart.col));
+                // the cell that was left shows again its state in the search
+                showState(map.id(r, c), search.state(map.id(r, c)));
+            } else {
+                // The search grows from the target, so it starts again.
+                fillGrid();
+            }
+        } // end endpointMoved()
+
+        /**
+         * Shows a cell with the color of its state in the search
+         */
+        private void showState(int id, byte state) {
+            int r = map.row(id);
+            int c = map.col(id);
+            // the robot, the target and the obstacles keep their colors
+            if (grid[r][c] == ROBOT || grid[r][c] == TARGET || grid[r][c] == OBST)
+                return;
+            if (state == GridSearch.OPEN)
+                setCell(r, c, FRONTIER);
+            else if (state == GridSearch.CLOSED)
+                setCell(r, c, CLOSED);
+            else
+                setCell(r, c, EMPTY);
+            logChange(id);
+        } // end showState()
+
         /**
          * Executes when the user presses the button "Step-by-Step"
          */
@@ -806,24 +794,51 @@ public class Main {
             timer.stop();
             if (found || endOfSearch)
                 return;
-            if (!searching && dijkstra.isSelected())
-                initializeDijkstra();
             searching = true;
             message.setText(MSG_SELECT_STEP_BY_STEP_ETC);
             realTimeButton.setEnabled(false);
             disableRadiosAndChecks();
             slider.setEnabled(true);
             checkTermination();
-            repaint();
+            repaintChanged();
         } // end stepButtonActionPerformed()
 
+        /**
+         * Executes when the user presses the button "Back": the last step
+         * is undone from the trace, and the next steps are shown from it
+         * until the search comes again where it was.
+         */
+        private void stepBackButtonActionPerformed(java.awt.event.ActionEvent evt) {
+            animation = false;
+            timer.stop();
+            if (trace == null || (replay != null && replay.position() == 0))
+                return;
+            if (replay == null) {
+                replay = trace.player();
+                replay.seek(trace.steps());
+                replay.setListener(this::showState);
+            }
+            if (endOfSearch) {
+                // the search goes on again, without the route
+                for (int i = 1; i < route.length - 1; i++)
+                    showState(route[i], replay.state(route[i]));
+                route = new int[0];
+                found = false;
+                endOfSearch = false;
+                message.setText(MSG_SELECT_STEP_BY_STEP_ETC);
+                stepButton.setEnabled(true);
+                animationButton.setEnabled(true);
+                slider.setEnabled(true);
+            }
+            replay.stepBack();
+            repaintChanged();
+        } // end stepBackButtonActionPerformed()
+
         /**
          * Executes when the user presses the button "Animation"
          */
         private void animationButtonActionPerformed(java.awt.event.ActionEvent evt) {
             animation = true;
-            if (!searching && dijkstra.isSelected())
-                initializeDijkstra();
             searching = true;
             message.setText(MSG_SELECT_STEP_BY_STEP_ETC);
             realTimeButton.setEnabled(false);
@@ -843,621 +858,290 @@ public class Main {
          */
         public void checkTermination() {
             // Here we decide whether we can continue the search or not.
-
-            // In the case of Dijkstra's algorithm
-            // here we check condition of step 11:
-            // 11. while Q is not empty.
-
-            // In the case of DFS, BFS, A* and Greedy algorithms
-            // here we have the second step:
-            // 2. If OPEN SET = [], then terminate. There is no solution.
-            if ((dijkstra.isSelected() && graph.isEmpty()) ||
-                    (!dijkstra.isSelected() && openSet.isEmpty()) ) {
+            // The steps undone by 'Back' are shown again from the trace.
+            if (replay != null) {
+                replay.stepForward();
+                if (replay.position() < trace.steps())
+                    return;
+                replay = null;
+                if (search.status() == GridSearch.RUNNING)
+                    return;
+            } else {
+                // The search is created just before its first step,
+                // because obstacles must be in place.
+                if (search == null)
+                    startSearch();
+                search.step();
+                if (trace != null)
+                    trace.endStep();
+            }
+            if (search.status() == GridSearch.NO_PATH) {
                 endOfSearch = true;
-                grid[robotStart.row][robotStart.col]=ROBOT;
+                setCell(robotStart.row, robotStart.col, ROBOT);
                 message.setText(MSG_NO_SOLUTION);
                 stepButton.setEnabled(false);
                 animationButton.setEnabled(false);
                 repaint();
-            } else {
-                expandNode();
-                if (found) {
-                    endOfSearch = true;
-                    plotRoute();
-                    stepButton.setEnabled(false);
-                    animationButton.setEnabled(false);
-                    slider.setEnabled(false);
-                    repaint();
-                }
+            } else if (search.status() == GridSearch.FOUND) {
+                found = true;
+                endOfSearch = true;
+                plotRoute();
+                stepButton.setEnabled(false);
+                animationButton.setEnabled(false);
+                slider.setEnabled(false);
+                repaint();
             }
-        }
+        } // end checkTermination()
 
         /**
-         * Expands a node and creates his successors
+         * Creates the search of the selected algorithm
+         * for the current obstacles, robot and target positions
          */
-        private void expandNode(){
-            // Dijkstra's algorithm to handle separately
-            if (dijkstra.isSelected()){
-                Cell u;
-                // 11: while Q is not empty:
-                if (graph.isEmpty())
-                    return;
-                // 12:  u := vertex in Q (graph) with smallest distance in dist[] ;
-                // 13:  remove u from Q (graph);
-                u = graph.remove(0);
-                // Add vertex u in closed set
-                closedSet.add(u);
-                // If target has been found ...
-                if (u.row == targetPos.row && u.col == targetPos.col){
-                    found = true;
-                    return;
-                }
-                // Counts nodes that have expanded.
-                expanded++;
-                // Update the color of the cell
-                grid[u.row][u.col] = CLOSED;
-                // 14: if dist[u] = infinity:
-                if (u.dist == INFINITY){
-                    // ... then there is no solution.
-                    // 15: break;
-                    return;
-                } // 16: end if
-                // Create the neighbors of u
-                ArrayList<Cell> neighbors = createSuccesors(u, false);
-                // 18: for each neighbor v of u:
-                for (Cell v: neighbors) {
-                    // 20: alt := dist[u] + dist_between(u, v) ;
-                    double alt = u.dist + distBetween(u,v);
-                    // 21: if alt < dist[v]:
-                    if (alt < v.dist) {
-                        // 22: dist[v] := alt ;
-                        v.dist = alt;
-                        // 23: previous[v] := u ;
-                        v.prev = u;
-                        // Update the color of the cell
-                        grid[v.row][v.col] = FRONTIER;
-                        // 24: decrease-key v in Q;
-                        // (sort list of nodes with respect to dist)
-                        Collections.sort(graph, new CellComparatorByDist());
-                    }
-                }
-            } else { // The handling of the other four algorithms
-                Cell current;
-                if (dfs.isSelected() || bfs.isSelected()) {
-                    // Here is the 3rd step of the algorithms DFS and BFS
-                    // 3. Remove the first state, Si, from OPEN SET ...
-                    current = openSet.remove(0);
-                } else {
-                    // Here is the 3rd step of the algorithms A* and Greedy
-                    // 3. Remove the first state, Si, from OPEN SET,
-                    // for which f(Si) ≤ f(Sj) for all other
-                    // open states Sj  ...
-                    // (sort first OPEN SET list with respect to 'f')
-                    Collections.sort(openSet, new CellComparatorByF());
-                    current = openSet.remove(0);
-                }
-                // ... and add it to CLOSED SET.
-                closedSet.add(0,current);
-                // Update the color of the cell
-                grid[current.row][current.col] = CLOSED;
-                // If the selected node is the target ...
-                if (current.row == targetPos.row && current.col == targetPos.col) {
-                    // ... then terminate etc
-                    Cell last = targetPos;
-                    last.prev = current.prev;
-                    closedSet.add(last);
-                    found = true;
-                    return;
-                }
-                // Count nodes that have been expanded.
-                expanded++;
-                // Here is the 4rd step of the algorithms
-                // 4. Create the successors of Si, based on actions
-                //    that can be implemented on Si.
-                //    Each successor has a pointer to the Si, as its predecessor.
-                //    In the case of DFS and BFS algorithms, successors should not
-                //    belong neither to the OPEN SET nor the CLOSED SET.
-                ArrayList<Cell> succesors;
-                succesors = createSuccesors(current, false);
-                // Here is the 5th step of the algorithms
-                // 5. For each successor of Si, ...
-                for (Cell cell: succesors){
-                    // ... if we are running DFS ...
-                    if (dfs.isSelected()) {
-                        // ... add the successor at the beginning of the list OPEN SET
-                        openSet.add(0, cell);
-                        // Update the color of the cell
-                        grid[cell.row][cell.col] = FRONTIER;
-                        // ... if we are runnig BFS ...
-                    } else if (bfs.isSelected()){
-                        // ... add the successor at the end of the list OPEN SET
-                        openSet.add(cell);
-                        // Update the color of the cell
-                        grid[cell.row][cell.col] = FRONTIER;
-                        // ... if we are running A* or Greedy algorithms (step 5 of A* algorithm) ...
-                    } else if (aStar.isSelected() || greedy.isSelected()){
-                        // ... calculate the value f(Sj) ...
-                        int dxg = current.col-cell.col;
-                        int dyg = current.row-cell.row;
-                        int dxh = targetPos.col-cell.col;
-                        int dyh = targetPos.row-cell.row;
-                        if (diagonal.isSelected()){
-                            // with diagonal movements
-                            // calculate the Euclidean distance
-                            if (greedy.isSelected()) {
-                                // especially for the Greedy ...
-                                cell.g = 0;
-                            } else {
-                                cell.g = current.g + Math.sqrt(dxg*dxg + dyg*dyg);
-                            }
-                            cell.h = Math.sqrt(dxh*dxh + dyh*dyh);
-                        } else {
-                            // without diagonal movements
-                            // calculate the Manhattan distance
-                            if (greedy.isSelected()) {
-                                // especially for the Greedy ...
-                                cell.g = 0;
-                            } else {
-                                cell.g = current.g + Math.abs(dxg)+Math.abs(dyg);
-                            }
-                            cell.h = Math.abs(dxh)+Math.abs(dyh);
-                        }
-                        cell.f = cell.g+cell.h;
-                        // ... If Sj is neither in the OPEN SET nor in the CLOSED SET states ...
-                        int openIndex   = isInList(openSet,cell);
-                        int closedIndex = isInList(closedSet,cell);
-                        if (openIndex == -1 && closedIndex == -1) {
-                            // ... then add Sj in the OPEN SET ...
-                            // ... evaluated as f(Sj)
-                            openSet.add(cell);
-                            // Update the color of the cell
-                            grid[cell.row][cell.col] = FRONTIER;
-                            // Else ...
-                        } else {
-                            // ... if already belongs to the OPEN SET, then ...
-                            if (openIndex > -1){
-                                // ... compare the new value assessment with the old one.
-                                // If old <= new ...
-                                if (openSet.get(openIndex).f <= cell.f) {
-                                    // ... then eject the new node with state Sj.
-                                    // (ie do nothing for this node).
-                                    // Else, ...
-                                } else {
-                                    // ... remove the element (Sj, old) from the list
-                                    // to which it belongs ...
-                                    openSet.remove(openIndex);
-                                    // ... and add the item (Sj, new) to the OPEN SET.
-                                    openSet.add(cell);
-                                    // Update the color of the cell
-                                    grid[cell.row][cell.col] = FRONTIER;
-                                }
-                                // ... if already belongs to the CLOSED SET, then ...
-                            } else {
-                                // ... compare the new value assessment with the old one.
-                                // If old <= new ...
-                                if (closedSet.get(closedIndex).f <= cell.f) {
-                                    // ... then eject the new node with state Sj.
-                                    // (ie do nothing for this node).
-                                    // Else, ...
-                                } else {
-                                    // ... remove the element (Sj, old) from the list
-                                    // to which it belongs ...
-                                    closedSet.remove(closedIndex);
-                                    // ... and add the item (Sj, new) to the OPEN SET.
-                                    openSet.add(cell);
-                                    // Update the color of the cell
-                                    grid[cell.row][cell.col] = FRONTIER;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } //end expandNode()
-        private ArrayList<Cell> createSuccesors(Cell current, boolean makeConnected){
-            int r = current.row;
-            int c = current.col;
-            // We create an empty list for the successors of the current cell.
-            ArrayList<Cell> temp = new ArrayList<>();
-
-            if (r > 0 && grid[r-1][c] != OBST &&
-                    // ... and (only in the case are not running the A* or Greedy)
-                    // not already belongs neither to the OPEN SET nor to the CLOSED SET ...
-                    ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected()) ? true :
-                            isInList(openSet,new Cell(r-1,c)) == -1 &&
-                                    isInList(closedSet,new Cell(r-1,c)) == -1)) {
-                Cell cell = new Cell(r-1,c);
-
-                if (dijkstra.isSelected()){
-                    if (makeConnected)
-                        temp.add(cell);
-                    else {
-                        int graphIndex = isInList(graph,cell);
-                        if (graphIndex > -1)
-                            temp.add(graph.get(graphIndex));
-                    }
-                } else {
-                    // ... update the pointer of the up-side cell so it points the current one ...
-                    cell.prev = current;
-                    // ... and add the up-side cell to the successors of the current one.
-                    temp.add(cell);
-                }
-            }
-            if (diagonal.isSelected()){
-                // If we are not even at the topmost nor at the rightmost border of the grid
-                // and the up-right-side cell is not an obstacle ...
-                if (r > 0 && c < columns-1 && grid[r-1][c+1] != OBST &&
-                        // ... and one of the upper side or right side cells are not obstacles ...
-                        // (because it is not reasonable to allow
-                        // the robot to pass through a "slot")
-                        (grid[r-1][c] != OBST || grid[r][c+1] != OBST) &&
-                        // ... and (only in the case are not running the A* or Greedy)
-                        // not already belongs neither to the OPEN SET nor CLOSED SET ...
-                        ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected()) ? true :
-                                isInList(openSet,new Cell(r-1,c+1)) == -1 &&
-                                        isInList(closedSet,new Cell(r-1,c+1)) == -1)) {
-                    Cell cell = new Cell(r-1,c+1);
-                    if (dijkstra.isSelected()){
-                        if (makeConnected)
-                            temp.add(cell);
-                        else {
-                            int graphIndex = isInList(graph,cell);
-                            if (graphIndex > -1)
-                                temp.add(graph.get(graphIndex));
-                        }
-                    } else {
-                        // ... update the pointer of the up-right-side cell so it points the current one ...
-                        cell.prev = current;
-                        // ... and add the up-right-side cell to the successors of the current one.
-                        temp.add(cell);
-                    }
-                }
-            }
-            // If not at the rightmost limit of the grid
-            // and the right-side cell is not an obstacle ...
-            if (c < columns-1 && grid[r][c+1] != OBST &&
-                    // ... and (only in the case are not running the A* or Greedy)
-                    // not already belongs neither to the OPEN SET nor to the CLOSED SET ...
-                    ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected())? true :
-                            isInList(openSet,new Cell(r,c+1)) == -1 &&
-                                    isInList(closedSet,new Cell(r,c+1)) == -1)) {
-                Cell cell = new Cell(r,c+1);
-                if (dijkstra.isSelected()){
-                    if (makeConnected)
-                        temp.add(cell);
-                    else {
-                        int graphIndex = isInList(graph,cell);
-                        if (graphIndex > -1)
-                            temp.add(graph.get(graphIndex));
-                    }
-                } else {
-                    // ... update the pointer of the right-side cell so it points the current one ...
-                    cell.prev = current;
-                    // ... and add the right-side cell to the successors of the current one.
-                    temp.add(cell);
-                }
-            }
-            if (diagonal.isSelected()){
-                // If we are not even at the lowermost nor at the rightmost border of the grid
-                // and the down-right-side cell is not an obstacle ...
-                if (r < rows-1 && c < columns-1 && grid[r+1][c+1] != OBST &&
-                        // ... and one of the down-side or right-side cells are not obstacles ...
-                        (grid[r+1][c] != OBST || grid[r][c+1] != OBST) &&
-                        // ... and (only in the case are not running the A* or Greedy)
-                        // not already belongs neither to the OPEN SET nor to the CLOSED SET ...
-                        ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected()) ? true :
-                                isInList(openSet,new Cell(r+1,c+1)) == -1 &&
-                                        isInList(closedSet,new Cell(r+1,c+1)) == -1)) {
-                    Cell cell = new Cell(r+1,c+1);
-                    if (dijkstra.isSelected()){
-                        if (makeConnected)
-                            temp.add(cell);
-                        else {
-                            int graphIndex = isInList(graph,cell);
-                            if (graphIndex > -1)
-                                temp.add(graph.get(graphIndex));
-                        }
-                    } else {
-                        // ... update the pointer of the downr-right-side cell so it points the current one ...
-                        cell.prev = current;
-                        // ... and add the down-right-side cell to the successors of the current one.
-                        temp.add(cell);
-                    }
-                }
-            }
-            // If not at the lowermost limit of the grid
-            // and the down-side cell is not an obstacle ...
-            if (r < rows-1 && grid[r+1][c] != OBST &&
-                    // ... and (only in the case are not running the A* or Greedy)
-                    // not already belongs neither to the OPEN SET nor to the CLOSED SET ...
-                    ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected()) ? true :
-                            isInList(openSet,new Cell(r+1,c)) == -1 &&
-                                    isInList(closedSet,new Cell(r+1,c)) == -1)) {
-                Cell cell = new Cell(r+1,c);
-                if (dijkstra.isSelected()){
-                    if (makeConnected)
-                        temp.add(cell);
-                    else {
-                        int graphIndex = isInList(graph,cell);
-                        if (graphIndex > -1)
-                            temp.add(graph.get(graphIndex));
-                    }
-                } else {
-                    // ... update the pointer of the down-side cell so it points the current one ...
-                    cell.prev = current;
-                    // ... and add the down-side cell to the successors of the current one.
-                    temp.add(cell);
-                }
-            }
-            if (diagonal.isSelected()){
-                // If we are not even at the lowermost nor at the leftmost border of the grid
-                // and the down-left-side cell is not an obstacle ...
-                if (r < rows-1 && c > 0 && grid[r+1][c-1] != OBST &&
-                        // ... and one of the down-side or left-side cells are not obstacles ...
-                        (grid[r+1][c] != OBST || grid[r][c-1] != OBST) &&
-                        // ... and (only in the case are not running the A* or Greedy)
-                        // not already belongs neither to the OPEN SET nor to the CLOSED SET ...
-                        ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected()) ? true :
-                                isInList(openSet,new Cell(r+1,c-1)) == -1 &&
-                                        isInList(closedSet,new Cell(r+1,c-1)) == -1)) {
-                    Cell cell = new Cell(r+1,c-1);
-                    if (dijkstra.isSelected()){
-                        if (makeConnected)
-                            temp.add(cell);
-                        else {
-                            int graphIndex = isInList(graph,cell);
-                            if (graphIndex > -1)
-                                temp.add(graph.get(graphIndex));
-                        }
-                    } else {
-                        // ... update the pointer of the down-left-side cell so it points the current one ...
-                        cell.prev = current;
-                        // ... and add the down-left-side cell to the successors of the current one.
-                        temp.add(cell);
-                    }
-                }
+        private void startSearch() {
+            // In Real-Time mode the clusters of HPA* are built once,
+            // and then only those the user edits are built again.
+            if (realTime && hierarchy != null) {
+                search = hierarchy;
+                search.setListener(new SearchDisplay());
+                search.reset(map.id(robotStart.row, robotStart.col), map.id(targetPos.row, targetPos.col));
+                return;
             }
-            // If not at the leftmost limit of the grid
-            // and the left-side cell is not an obstacle ...
-            if (c > 0 && grid[r][c-1] != OBST &&
-                    // ... and (only in the case are not running the A* or Greedy)
-                    // not already belongs neither to the OPEN SET nor to the CLOSED SET ...
-                    ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected()) ? true :
-                            isInList(openSet,new Cell(r,c-1)) == -1 &&
-                                    isInList(closedSet,new Cell(r,c-1)) == -1)) {
-                Cell cell = new Cell(r,c-1);
-                if (dijkstra.isSelected()){
-                    if (makeConnected)
-                        temp.add(cell);
-                    else {
-                        int graphIndex = isInList(graph,cell);
-                        if (graphIndex > -1)
-                            temp.add(graph.get(graphIndex));
-                    }
-                } else {
-                    // ... update the pointer of the left-side cell so it points the current one ...
-                    cell.prev = current;
-                    // ... and add the left-side cell to the successors of the current one.
-                    temp.add(cell);
+            map = new Grid(rows, columns);
+            for (int r = 0; r < rows; r++)
+                for (int c = 0; c < columns; c++)
+                    if (grid[r][c] == OBST)
+                        map.setObstacle(r, c, true);
+            // a target that cannot be reached is reported at once
+            map.components();
+            // In Real-Time mode, A* and Dijkstra are repaired after every change
+            // by D* Lite, with or without the heuristic.
+            if (realTime && (aStar.isSelected() || dijkstra.isSelected()) && !bidirectional.isSelected())
+                search = new DStarLiteSearch(map, diagonal.isSelected(), aStar.isSelected());
+            else
+                search = selectedAlgorithm().create(map, diagonal.isSelected());
+            if (realTime && search instanceof HpaStarSearch)
+                hierarchy = (HpaStarSearch) search;
+            // the searches of Step-by-Step and Animation modes are recorded for 'Back'
+            trace = realTime ? null : new SearchTrace(map);
+            search.setListener(new SearchDisplay());
+            search.reset(map.id(robotStart.row, robotStart.col), map.id(targetPos.row, targetPos.col));
+            if (trace != null)
+                trace.endStep();
+        } // end startSearch()
+
+        /**
+         * Returns the algorithm selected by the radio buttons
+         */
+        private Algorithm selectedAlgorithm() {
+            if (bfs.isSelected())
+                return bidirectional.isSelected() ? Algorithm.BIDIRECTIONAL_BFS : Algorithm.BFS;
+            if (aStar.isSelected())
+                return bidirectional.isSelected() ? Algorithm.BIDIRECTIONAL_A_STAR : Algorithm.A_STAR;
+            if (greedy.isSelected())
+                return Algorithm.GREEDY;
+            if (dijkstra.isSelected())
+                return bidirectional.isSelected() ? Algorithm.BIDIRECTIONAL_DIJKSTRA : Algorithm.DIJKSTRA;
+            if (jps.isSelected())
+                return Algorithm.JPS;
+            if (hpa.isSelected())
+                return Algorithm.HPA_STAR;
+            return Algorithm.DFS;
+        } // end selectedAlgorithm()
+
+        /**
+         * Marks the path from the initial position of the robot
+         * to the target, and shows the number of expanded nodes,
+         * the steps and the distance traveled.
+         */
+        private void plotRoute(){
+            route = search.path();
+            for (int i = 1; i < route.length - 1; i++)
+                setCell(map.row(route[i]), map.col(route[i]), ROUTE);
+            setCell(robotStart.row, robotStart.col, ROBOT);
+            setCell(targetPos.row, targetPos.col, TARGET);
+            message.setText(search.result().toString());
+        } // end plotRoute()
+
+        /**
+         * Adds a cell to the log of the cells to be repainted
+         */
+        private void logChange(int id) {
+            if (changedCount == -1)
+                return;
+            if (changedCount == changed.length)
+                changedCount = -1;
+            else
+                changed[changedCount++] = id;
+        } // end logChange()
+
+        /**
+         * Repaints only the rectangle of the view that contains
+         * the cells changed since the last repaint, and empties the log.
+         */
+        private void repaintChanged() {
+            boolean arrows = arrowsVisible();
+            // The predecessors of JPS and HPA* may be far away, so the arrows
+            // that change can be anywhere in the view.
+            if (changedCount == -1 || (arrows && (jps.isSelected() || hpa.isSelected()))) {
+                repaint();
+            } else if (changedCount > 0) {
+                int minRow = rows, maxRow = -1, minCol = columns, maxCol = -1;
+                for (int i = 0; i < changedCount; i++) {
+                    int r = map.row(changed[i]);
+                    int c = map.col(changed[i]);
+                    minRow = Math.min(minRow, r);
+                    maxRow = Math.max(maxRow, r);
+                    minCol = Math.min(minCol, c);
+                    maxCol = Math.max(maxCol, c);
                 }
-            }
-            if (diagonal.isSelected()){
-                // If we are not even at the topmost nor at the leftmost border of the grid
-                // and the up-left-side cell is not an obstacle ...
-                if (r > 0 && c > 0 && grid[r-1][c-1] != OBST &&
-                        // ... and one of the up-side or left-side cells are not obstacles ...
-                        (grid[r-1][c] != OBST || grid[r][c-1] != OBST) &&
-                        // ... and (only in the case are not running the A* or Greedy)
-                        // not already belongs neither to the OPEN SET nor to the CLOSED SET ...
-                        ((aStar.isSelected() || greedy.isSelected() || dijkstra.isSelected()) ? true :
-                                isInList(openSet,new Cell(r-1,c-1)) == -1 &&
-                                        isInList(closedSet,new Cell(r-1,c-1)) == -1)) {
-                    Cell cell = new Cell(r-1,c-1);
-                    if (dijkstra.isSelected()){
-                        if (makeConnected)
-                            temp.add(cell);
-                        else {
-                            int graphIndex = isInList(graph,cell);
-                            if (graphIndex > -1)
-                                temp.add(graph.get(graphIndex));
-                        }
-                    } else {
-                        // ... update the pointer of the up-left-side cell so it points the current one ...
-                        cell.prev = current;
-                        // ... and add the up-left-side cell to the successors of the current one.
-                        temp.add(cell);
-                    }
+                // The arrow of a changed cell ends at a neighbor,
+                // and a neighbor may have changed its predecessor
+                // to the cell without changing its state.
+                if (arrows) {
+                    minRow = Math.max(0, minRow - 2);
+                    maxRow = Math.min(rows - 1, maxRow + 2);
+                    minCol = Math.max(0, minCol - 2);
+                    maxCol = Math.min(columns - 1, maxCol + 2);
                 }
+                int x = screenX(minCol);
+                int y = screenY(minRow);
+                repaint(x, y, screenX(maxCol + 1) - x + 1, screenY(maxRow + 1) - y + 1);
             }
-            // When DFS algorithm is in use, cells are added one by one at the beginning of the
-            // OPEN SET list. Because of this, we must reverse the order of successors formed,
-            // so the successor corresponding to the highest priority, to be placed
-            // the first in the list.
-            // For the Greedy, A* and Dijkstra's no issue, because the list is sorted
-            // according to 'f' or 'dist' before extracting the first element of.
-            if (dfs.isSelected())
-                Collections.reverse(temp);
-
-            return temp;
-        } // end createSuccesors()
+            changedCount = 0;
+        } // end repaintChanged()
 
         /**
-         * Returns the distance between two cells
-         *
-         * @param u the first cell
-         * @param v the other cell
-         * @return  the distance between the cells u and v
+         * Gives a value to a cell of the grid and the color of the value
+         * to its pixel in the image of the grid.
          */
-        private double distBetween(Cell u, Cell v){
-            double dist;
-            int dx = u.col-v.col;
-            int dy = u.row-v.row;
-            if (diagonal.isSelected()){
-                // with diagonal movements
-                // calculate the Euclidean distance
-                dist = Math.sqrt(dx*dx + dy*dy);
-            } else {
-                // without diagonal movements
-                // calculate the Manhattan distance
-                dist = Math.abs(dx)+Math.abs(dy);
-            }
-            return dist;
-        } // end distBetween()
+        private void setCell(int r, int c, int value) {
+            grid[r][c] = value;
+            pixels[r * columns + c] = (byte) value;
+        } // end setCell()
 
         /**
-         * Returns the index of the cell 'current' in the list 'list'
-         *
-         * @param list    the list in which we seek
-         * @param current the cell we are looking for
-         * @return        the index of the cell in the list
-         *                if the cell is not found returns -1
+         * Creates the palette of the image of the grid
          */
-        private int isInList(ArrayList<Cell> list, Cell current){
-            int index = -1;
-            for (int i = 0 ; i < list.size(); i++) {
-                Cell listItem = list.get(i);
-                if (current.row == listItem.row && current.col == listItem.col) {
-                    index = i;
-                    break;
-                }
+        private static IndexColorModel cellColors(Color... colors) {
+            byte[] red = new byte[colors.length];
+            byte[] green = new byte[colors.length];
+            byte[] blue = new byte[colors.length];
+            for (int i = 0; i < colors.length; i++) {
+                red[i] = (byte) colors[i].getRed();
+                green[i] = (byte) colors[i].getGreen();
+                blue[i] = (byte) colors[i].getBlue();
             }
-            return index;
-        } // end isInList()
+            return new IndexColorModel(8, colors.length, red, green, blue);
+        } // end cellColors()
 
         /**
-         * Returns the predecessor of cell 'current' in list 'list'
-         *
-         * @param list      the list in which we seek
-         * @param current   the cell we are looking for
-         * @return          the predecessor of cell 'current'
+         * Returns the cell size with which the whole grid fits in the view.
+         * Cells of one pixel or more get an integral size.
          */
-        private Cell findPrev(ArrayList<Cell> list, Cell current){
-            int index = isInList(list, current);
-            Cell listItem = list.get(index);
-            return listItem.prev;
-        } // end findPrev()
+        private double fitSquareSize() {
+            double size = (double) VIEW_SIZE / Math.max(rows, columns);
+            return size >= 1 ? Math.floor(size) : size;
+        } // end fitSquareSize()
 
         /**
-         * Calculates the path from the target to the initial position
-         * of the robot, counts the corresponding steps
-         * and measures the distance traveled.
+         * Changes the cell size, keeping in place the cell at point (x,y)
          */
-        private void plotRoute(){
-            int steps = 0;
-            double distance = 0;
-            int index = isInList(closedSet,targetPos);
-            Cell cur = closedSet.get(index);
-            grid[cur.row][cur.col]= TARGET;
-            do {
-                steps++;
-                if (diagonal.isSelected()) {
-                    int dx = cur.col-cur.prev.col;
-                    int dy = cur.row-cur.prev.row;
-                    distance += Math.sqrt(dx*dx + dy*dy);
-                } else
-                    distance++;
-                cur = cur.prev;
-                grid[cur.row][cur.col] = ROUTE;
-            } while (!(cur.row == robotStart.row && cur.col == robotStart.col));
-            grid[robotStart.row][robotStart.col]=ROBOT;
-            String msg;
-            msg = String.format("Nodes expanded: %d, Steps: %d, Distance: %.3f",
-                    expanded,steps,distance);
-            message.setText(msg);
+        private void zoom(double size, int x, int y) {
+            double row = viewRow + (y - VIEW_Y) / squareSize;
+            double col = viewCol + (x - VIEW_X) / squareSize;
+            squareSize = Math.max(fitSquareSize(), Math.min(size, MAX_SQUARE_SIZE));
+            arrowSize = (int)squareSize/2;
+            viewRow = row - (y - VIEW_Y) / squareSize;
+            viewCol = col - (x - VIEW_X) / squareSize;
+            pan(0, 0);
+        } // end zoom()
 
-        } // end plotRoute()
+        /**
+         * Moves the view by the given number of rows and columns,
+         * without going past the sides of the grid
+         */
+        private void pan(double dRows, double dCols) {
+            viewRow = Math.max(0, Math.min(viewRow + dRows, rows - VIEW_SIZE / squareSize));
+            viewCol = Math.max(0, Math.min(viewCol + dCols, columns - VIEW_SIZE / squareSize));
+            repaint();
+        } // end pan()
 
         /**
-         * Appends to the list containing the nodes of the graph only
-         * the cells belonging to the same connected component with node v.
-         * This is a Breadth First Search of the graph starting from node v.
-         *
-         * @param v    the starting node
+         * Returns the row of the cell at height y of the panel,
+         * or -1 if y is outside the view
          */
-        private void findConnectedComponent(Cell v){
-            Stack<Cell> stack;
-            stack = new Stack();
-            ArrayList<Cell> succesors;
-            stack.push(v);
-            graph.add(v);
-            while(!stack.isEmpty()){
-                v = stack.pop();
-                succesors = createSuccesors(v, true);
-                for (Cell c: succesors) {
-                    if (isInList(graph, c) == -1){
-                        stack.push(c);
-                        graph.add(c);
-                    }
-                }
-            }
-        } // end findConnectedComponent()
+        private int rowAt(int y) {
+            if (y < VIEW_Y || y >= VIEW_Y + VIEW_SIZE)
+                return -1;
+            return (int) (viewRow + (y - VIEW_Y) / squareSize);
+        }
 
         /**
-         * Initialization of Dijkstra's algorithm
+         * Returns the column of the cell at width x of the panel,
+         * or -1 if x is outside the view
          */
-        private void initializeDijkstra() {
-
-            // First create the connected component
-            // to which the initial position of the robot belongs.
-            graph.removeAll(graph);
-            findConnectedComponent(robotStart);
-            // Here is the initialization of Dijkstra's algorithm
-            // 2: for each vertex v in Graph;
-            for (Cell v: graph) {
-                // 3: dist[v] := infinity ;
-                v.dist = INFINITY;
-                // 5: previous[v] := undefined ;
-                v.prev = null;
-            }
-            // 8: dist[source] := 0;
-            graph.get(isInList(graph,robotStart)).dist = 0;
-            // 9: Q := the set of all nodes in Graph;
-            // Instead of the variable Q we will use the list
-            // 'graph' itself, which has already been initialised.
-
-            // Sorts the list of nodes with respect to 'dist'.
-            Collections.sort(graph, new CellComparatorByDist());
-            // Initializes the list of closed nodes
-            closedSet.removeAll(closedSet);
-        } // end initializeDijkstra()
+        private int colAt(int x) {
+            if (x < VIEW_X || x >= VIEW_X + VIEW_SIZE)
+                return -1;
+            return (int) (viewCol + (x - VIEW_X) / squareSize);
+        }
 
         /**
-         * Repaints the grid
+         * Returns the height in the panel of the top side of row r
+         */
+        private int screenY(double r) {
+            return VIEW_Y + (int) Math.floor((r - viewRow) * squareSize);
+        }
+
+        /**
+         * Returns the width in the panel of the left side of column c
+         */
+        private int screenX(double c) {
+            return VIEW_X + (int) Math.floor((c - viewCol) * squareSize);
+        }
+
+        /**
+         * Repaints the part of the grid that is visible
+         * and inside the area to be repainted
          */
         @Override
         public void paintComponent(Graphics g) {
             super.paintComponent(g);
-            g.setColor(Color.DARK_GRAY);
-            // Fills the background color.
-            g.fillRect(10, 10, columns*squareSize+1, rows*squareSize+1);
-
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < columns; c++) {
-                    if (grid[r][c] == EMPTY) {
-                        g.setColor(Color.WHITE);
-                    } else if (grid[r][c] == ROBOT) {
-                        g.setColor(Color.RED);
-                    } else if (grid[r][c] == TARGET) {
-                        g.setColor(Color.GREEN);
-                    } else if (grid[r][c] == OBST) {
-                        g.setColor(Color.BLACK);
-                    } else if (grid[r][c] == FRONTIER) {
-                        g.setColor(Color.BLUE);
-                    } else if (grid[r][c] == CLOSED) {
-                        g.setColor(Color.CYAN);
-                    } else if (grid[r][c] == ROUTE) {
-                        g.setColor(Color.YELLOW);
-                    }
-                    g.fillRect(11 + c*squareSize, 11 + r*squareSize, squareSize - 1, squareSize - 1);
-                }
+            Graphics view = g.create();
+            view.clipRect(VIEW_X, VIEW_Y, VIEW_SIZE + 1, VIEW_SIZE + 1);
+            Rectangle clip = view.getClipBounds();
+            if (clip.isEmpty()) {
+                view.dispose();
+                return;
             }
 
+            // The rows and columns to repaint
+            int r0 = Math.max(0, (int) (viewRow + (clip.y - VIEW_Y) / squareSize));
+            int c0 = Math.max(0, (int) (viewCol + (clip.x - VIEW_X) / squareSize));
+            int r1 = Math.min(rows, (int) Math.ceil(viewRow + (clip.y + clip.height - VIEW_Y) / squareSize));
+            int c1 = Math.min(columns, (int) Math.ceil(viewCol + (clip.x + clip.width - VIEW_X) / squareSize));
+            int x0 = screenX(c0), y0 = screenY(r0), x1 = screenX(c1), y1 = screenY(r1);
+
+            // The cells are drawn by scaling their part of the image ...
+            view.drawImage(cells, x0, y0, x1, y1, c0, r0, c1, r1, null);
+
+            // ... and, when they are large enough, they are separated by lines.
+            if (squareSize >= DETAIL_SIZE) {
+                view.setColor(Color.DARK_GRAY);
+                for (int r = r0; r <= r1; r++)
+                    view.drawLine(x0, screenY(r), x1, screenY(r));
+                for (int c = c0; c <= c1; c++)
+                    view.drawLine(screenX(c), y0, screenX(c), y1);
+            }
 
-            if (drawArrows.isSelected()) {
-                // We draw all arrows from each open or closed state
-                // to its predecessor.
-                for (int r = 0; r < rows; r++)
-                    for (int c = 0; c < columns; c++)
+            if (arrowsVisible()) {
+                ((Graphics2D) view).setStroke(new BasicStroke(squareSize > 25 ? 2 : 1));
+                // We draw all arrows from each repainted open or closed state
+                // to its predecessor, which the search keeps for every cell.
+                // The arrows of the cells around the area are also drawn again,
+                // because they may cross into it.
+                for (int r = Math.max(0, r0 - 1); r < Math.min(rows, r1 + 1); r++)
+                    for (int c = Math.max(0, c0 - 1); c < Math.min(columns, c1 + 1); c++)
                         // If the current cell is the goal and the solution has been found,
                         // or belongs in the route to the target,
                         // or is an open state,
@@ -1467,60 +1151,54 @@ public class Main {
                                 !(r == robotStart.row && c == robotStart.col))){
                             // The tail of the arrow is the current cell, while
                             // the arrowhead is the predecessor cell.
-                            Cell head;
-                            if (grid[r][c] == FRONTIER)
-                                if (dijkstra.isSelected())
-                                    head = findPrev(graph,new Cell(r,c));
-                                else
-                                    head = findPrev(openSet,new Cell(r,c));
-                            else
-                                head = findPrev(closedSet,new Cell(r,c));
+                            int prev = search.parent(map.id(r, c));
+                            if (prev == -1)
+                                continue;
 
                             // The coordinates of the center of the current cell
-                            int tailX = 11 + c * squareSize + squareSize / 2;
-                            int tailY = 11 + r * squareSize + squareSize / 2;
+                            int tailX = screenX(c + 0.5);
+                            int tailY = screenY(r + 0.5);
                             // The coordinates of the center of the predecessor cell
-                            int headX = 11 + head.col * squareSize + squareSize / 2;
-                            int headY = 11 + head.row * squareSize + squareSize / 2;
-                            int thickness = squareSize > 25 ? 2 : 1;
+                            int headX = screenX(map.col(prev) + 0.5);
+                            int headY = screenY(map.row(prev) + 0.5);
 
                             // If the current cell is the target
                             // or belongs to the path to the target ...
                             if (grid[r][c] == TARGET  || grid[r][c] == ROUTE){
                                 // ... draw a red arrow directing to the target.
-                                g.setColor(Color.RED);
-                                drawArrow(g,thickness,tailX,tailY,headX,headY);
+                                view.setColor(Color.RED);
+                                drawArrow(view,tailX,tailY,headX,headY);
                                 // Else ...
                             } else {
                                 // ... draw a black arrow to the predecessor cell.
-                                g.setColor(Color.BLACK);
-                                drawArrow(g,thickness,headX,headY,tailX,tailY);
+                                view.setColor(Color.BLACK);
+                                drawArrow(view,headX,headY,tailX,tailY);
                             }
                         }
             }
+            view.dispose();
         } // end paintComponent()
 
         /**
-         * Draws an arrow from point (x2,y2) to point (x1,y1)
+         * Returns true if the arrows to the predecessors must be drawn:
+         * they are selected and the cells are large enough to show them
          */
-        private void drawArrow(Graphics g1, int thickness, int x1, int y1, int x2, int y2) {
-            Graphics2D g = (Graphics2D) g1.create();
+        private boolean arrowsVisible() {
+            return drawArrows.isSelected() && search != null && squareSize >= DETAIL_SIZE;
+        }
 
+        /**
+         * Draws an arrow from point (x2,y2) to point (x1,y1)
+         */
+        private void drawArrow(Graphics g, int x1, int y1, int x2, int y2) {
             double dx = x2 - x1, dy = y2 - y1;
-            double angle = Math.atan2(dy, dx);
-            int len = (int) Math.sqrt(dx * dx + dy * dy);
-            AffineTransform at = AffineTransform.getTranslateInstance(x1, y1);
-            at.concatenate(AffineTransform.getRotateInstance(angle));
-            g.transform(at);
-
-            // We draw an horizontal arrow 'len' in length
-            // that ends at the point (0,0) with two tips 'arrowSize' in length
-            // which form 20 degrees angles with the axis of the arrow ...
-            g.setStroke(new BasicStroke(thickness));
-            g.drawLine(0, 0, len, 0);
-            g.drawLine(0, 0, (int)(arrowSize * Math.sin(70 * Math.PI / 180)) , (int)(arrowSize  *Math.cos(70 * Math.PI / 180)));
-            g.drawLine(0, 0, (int)(arrowSize * Math.sin(70 * Math.PI / 180)) , -(int)(arrowSize * Math.cos(70 * Math.PI / 180)));
-            // ... and class AffineTransform handles the rest !!!!!!
+            double len = Math.sqrt(dx * dx + dy * dy);
+            // The axis of the arrow, 'arrowSize' in length ...
+            double ax = dx / len * arrowSize, ay = dy / len * arrowSize;
+            g.drawLine(x1, y1, x2, y2);
+            // ... rotated by 20 degrees on each side gives the two tips.
+            g.drawLine(x1, y1, x1 + (int)(ax * TIP_COS - ay * TIP_SIN), y1 + (int)(ax * TIP_SIN + ay * TIP_COS));
+            g.drawLine(x1, y1, x1 + (int)(ax * TIP_COS + ay * TIP_SIN), y1 + (int)(ay * TIP_COS - ax * TIP_SIN));
         } // end drawArrow()
 
     } // end nested classs MazePanel
@@ -0,0 +1,141 @@
+package com.company;
+
+import java.util.SplittableRandom;
+
+import com.company.search.Grid;
+
+/**
+ * Generator of random mazes. The maze is drawn in a grid
+ * with (2 * xDimension + 1) rows and (2 * yDimension + 1) columns,
+ * where the cells of the maze are at odd rows and columns
+ * and everything else is a wall, unless a passage opens it.
+ *
+ * The cells are kept in one byte each: whether the passage to the cell
+ * below (y + 1) and to the cell on the right (x + 1) is open, and whether
+ * the cell has been reached by the generation. Cell (x, y) has index
+ * x * yDimension + y.
+ */
+public class MyMaze {
+    private static final byte BELOW = 1;   // the passage to cell (x, y + 1) is open
+    private static final byte RIGHT = 2;   // the passage to cell (x + 1, y) is open
+    private static final byte VISITED = 4; // the cell has been reached by the generation
+
+    private int dimensionX, dimensionY;         // dimension of maze
+    private int gridDimensionX, gridDimensionY; // dimension of output grid
+    private byte[] cells;                       // the bits of every cell
+    private SplittableRandom random;            // The random object
+
+    // initialize with x and y the same
+    public MyMaze(int aDimension) {
+        this(aDimension, aDimension);
+    }
+    // constructor
+    public MyMaze(int xDimension, int yDimension) {
+        this(xDimension, yDimension, new SplittableRandom());
+    }
+    /**
+     * Creates the maze of the given seed: the same seed gives the same maze
+     */
+    public MyMaze(int xDimension, int yDimension, long seed) {
+        this(xDimension, yDimension, new SplittableRandom(seed));
+    }
+    private MyMaze(int xDimension, int yDimension, SplittableRandom random) {
+        if ((long) xDimension * yDimension > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze too large: " + xDimension + "x" + yDimension);
+        dimensionX = xDimension;
+        dimensionY = yDimension;
+        gridDimensionX = xDimension * 2 + 1;
+        gridDimensionY = yDimension * 2 + 1;
+        cells = new byte[xDimension * yDimension];
+        this.random = random;
+        generateMaze();
+    }
+
+    // generate from upper left (In computing the y increases down often)
+    private void generateMaze() {
+        if (cells.length == 0)
+            return;
+        // the cells that may still have unvisited neighbors;
+        // every cell is added once when it is reached and once for each
+        // neighbor it opens, and removed once for each time it is taken
+        int[] cellsList = new int[cells.length + 1];
+        int size = 0;
+        int[] neighbors = new int[4];
+        cells[0] |= VISITED;
+        cellsList[size++] = 0;
+
+        while (size > 0) {
+            int cell;
+            // this is to reduce but not completely eliminate the number
+            // of long twisting halls with short easy to detect branches
+            // which results in easy mazes
+            if (random.nextInt(10) == 0) {
+                int i = random.nextInt(size);
+                cell = cellsList[i];
+                cellsList[i] = cellsList[--size];
+            } else {
+                cell = cellsList[--size];
+            }
+            int x = cell / dimensionY;
+            int y = cell - x * dimensionY;
+            // the neighbors not visited yet
+            int n = 0;
+            if (x + 1 < dimensionX && (cells[cell + dimensionY] & VISITED) == 0)
+                neighbors[n++] = cell + dimensionY;
+            if (y + 1 < dimensionY && (cells[cell + 1] & VISITED) == 0)
+                neighbors[n++] = cell + 1;
+            if (x > 0 && (cells[cell - dimensionY] & VISITED) == 0)
+                neighbors[n++] = cell - dimensionY;
+            if (y > 0 && (cells[cell - 1] & VISITED) == 0)
+                neighbors[n++] = cell - 1;
+            if (n == 0)
+                continue;
+            // get random cell and open the passage to it
+            int selected = neighbors[random.nextInt(n)];
+            cells[selected] |= VISITED;
+            if (selected == cell + dimensionY)
+                cells[cell] |= RIGHT;
+            else if (selected == cell + 1)
+                cells[cell] |= BELOW;
+            else if (selected == cell - dimensionY)
+                cells[selected] |= RIGHT;
+            else
+                cells[selected] |= BELOW;
+            cellsList[size++] = cell;
+            cellsList[size++] = selected;
+        }
+    } // end generateMaze()
+
+    // the number of rows of the output grid
+    public int getGridDimensionX() {
+        return gridDimensionX;
+    }
+
+    // the number of columns of the output grid
+    public int getGridDimensionY() {
+        return gridDimensionY;
+    }
+
+    // true if there is a wall at row x, column y of the output grid
+    public boolean isWall(int x, int y) {
+        if (x % 2 == 1 && y % 2 == 1)
+            return false; // a cell
+        if (x % 2 == 0 && y % 2 == 0)
+            return true;  // a corner between cells
+        if (x == 0 || y == 0 || x == gridDimensionX - 1 || y == gridDimensionY - 1)
+            return true;  // the outer wall
+        // the wall between two cells is open if the cell above or on the left opened it
+        if (x % 2 == 0)
+            return (cells[(x / 2 - 1) * dimensionY + y / 2] & RIGHT) == 0;
+        return (cells[(x / 2) * dimensionY + y / 2 - 1] & BELOW) == 0;
+    } // end isWall()
+
+    /**
+     * Turns the walls of the maze into obstacles of the grid
+     */
+    public void copyTo(Grid grid) {
+        for (int x = 0; x < gridDimensionX; x++)
+            for (int y = 0; y < gridDimensionY; y++)
+                grid.setObstacle(x, y, isWall(x, y));
+    }
+} // end class MyMaze
@@ -0,0 +1,18 @@
+package com.company.search;
+
+/**
+ * The A* algorithm: f(Sj) = g(Sj) + h(Sj), where g is the length of the
+ * path from the start and h the estimated distance to the target.
+ */
+public final class AStarSearch extends BestFirstSearch {
+
+    public AStarSearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+    }
+
+    @Override
+    float g(float g, float cost) {
+        return g + cost;
+    }
+
+} // end class AStarSearch
@@ -0,0 +1,57 @@
+package com.company.search;
+
+/**
+ * The available search algorithms.
+ */
+public enum Algorithm {
+    DFS,
+    BFS,
+    A_STAR,
+    GREEDY,
+    DIJKSTRA,
+    JPS,
+    BIDIRECTIONAL_BFS,
+    BIDIRECTIONAL_DIJKSTRA,
+    BIDIRECTIONAL_A_STAR,
+    D_STAR_LITE,
+    HPA_STAR,
+    DIAL;
+
+    /**
+     * Creates the search that implements this algorithm on the given grid.
+     *
+     * @param grid     the grid to search
+     * @param diagonal true if diagonal movements are allowed
+     */
+    public GridSearch create(Grid grid, boolean diagonal) {
+        switch (this) {
+            case DFS:
+                return new DepthFirstSearch(grid, diagonal);
+            case BFS:
+                return new BreadthFirstSearch(grid, diagonal);
+            case A_STAR:
+                return new AStarSearch(grid, diagonal);
+            case GREEDY:
+                return new GreedySearch(grid, diagonal);
+            case DIJKSTRA:
+                return new DijkstraSearch(grid, diagonal);
+            case JPS:
+                return new JumpPointSearch(grid, diagonal);
+            case BIDIRECTIONAL_BFS:
+                return new BidirectionalBfs(grid, diagonal);
+            case BIDIRECTIONAL_DIJKSTRA:
+                return new BidirectionalDijkstra(grid, diagonal);
+            case BIDIRECTIONAL_A_STAR:
+                return new BidirectionalAStar(grid, diagonal);
+            case D_STAR_LITE:
+                return new DStarLiteSearch(grid, diagonal);
+            case HPA_STAR:
+                return new HpaStarSearch(grid, diagonal);
+            case DIAL:
+                return new DialSearch(grid, diagonal);
+            default:
+                throw new AssertionError(this);
+        }
+    }
+
+} // end enum Algorithm
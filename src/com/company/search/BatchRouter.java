@@ -0,0 +1,134 @@
+package com.company.search;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves many queries on the same grid at once, in parallel.
+ *
+ * The queries are divided among the threads of a fork-join pool.
+ * The grid is only read, so all the threads share it, while every
+ * thread of the pool has its own search and reuses it for all its
+ * queries, without allocating a new search space per query.
+ * The searches belong to the router, not to the threads, so they are
+ * freed with the router even when the threads of the pool live on.
+ * The grid must not change while a batch is running.
+ * The searches record into the SearchMetrics of the algorithm.
+ */
+public final class BatchRouter {
+
+    // the number of queries below which a task is not divided any further
+    private static final int QUERIES_PER_TASK = 4;
+
+    private final ForkJoinPool pool;
+    private final Grid grid;
+    private final Algorithm algorithm;
+    private final boolean diagonal;
+    private final SearchMetrics metrics;
+
+    // the search of every thread of the pool, by the index of the thread
+    private GridSearch[] searches = new GridSearch[0];
+
+    // the searches of the threads outside the pool that help with a batch,
+    // such as the one that calls route() on the common pool
+    private final ConcurrentLinkedQueue<GridSearch> spare = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a router that runs on the common fork-join pool
+     */
+    public BatchRouter(Grid grid, Algorithm algorithm, boolean diagonal) {
+        this(grid, algorithm, diagonal, ForkJoinPool.commonPool());
+    }
+
+    public BatchRouter(Grid grid, Algorithm algorithm, boolean diagonal, ForkJoinPool pool) {
+        this.pool = pool;
+        this.grid = grid;
+        this.algorithm = algorithm;
+        this.diagonal = diagonal;
+        this.metrics = SearchMetrics.of(algorithm);
+    }
+
+    private GridSearch create() {
+        GridSearch s = algorithm.create(grid, diagonal);
+        s.setMetrics(metrics);
+        return s;
+    }
+
+    /**
+     * Returns the search of the thread of the pool with the given index,
+     * creating it the first time. No two living threads of a pool have
+     * the same index, so a search is never used by two threads at once.
+     */
+    private synchronized GridSearch search(int index) {
+        if (index >= searches.length)
+            searches = Arrays.copyOf(searches, Math.max(index + 1, pool.getParallelism()));
+        if (searches[index] == null)
+            searches[index] = create();
+        return searches[index];
+    }
+
+    /**
+     * Finds the path from starts[i] to targets[i] for every i.
+     *
+     * @return the result of every query, in the order of the queries
+     */
+    public SearchResult[] route(int[] starts, int[] targets) {
+        if (starts.length != targets.length)
+            throw new IllegalArgumentException(
+                    "Starts and targets differ in number: " + starts.length + ", " + targets.length);
+        SearchResult[] results = new SearchResult[starts.length];
+        pool.invoke(new Queries(starts, targets, results, 0, starts.length));
+        return results;
+    } // end route()
+
+    /**
+     * The task that solves the queries from 'from' (inclusive) to 'to' (exclusive),
+     * dividing them in two halves as long as they are many
+     */
+    private final class Queries extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] starts, targets;
+        private final SearchResult[] results;
+        private final int from, to;
+
+        Queries(int[] starts, int[] targets, SearchResult[] results, int from, int to) {
+            this.starts = starts;
+            this.targets = targets;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= QUERIES_PER_TASK) {
+                Thread thread = Thread.currentThread();
+                if (thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool) {
+                    solve(search(((ForkJoinWorkerThread) thread).getPoolIndex()));
+                } else {
+                    GridSearch s = spare.poll();
+                    if (s == null)
+                        s = create();
+                    solve(s);
+                    spare.offer(s);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Queries(starts, targets, results, from, middle),
+                    new Queries(starts, targets, results, middle, to));
+        }
+
+        private void solve(GridSearch s) {
+            for (int i = from; i < to; i++)
+                results[i] = s.search(starts[i], targets[i]);
+        }
+
+    } // end class Queries
+
+} // end class BatchRouter
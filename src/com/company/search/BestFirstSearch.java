@@ -0,0 +1,98 @@
+package com.company.search;
+
+/**
+ * Common part of the A* and Greedy algorithms: the state removed
+ * from the OPEN SET is always the one with the smallest 'f'.
+ * They can also start from many cells and end at the first of many targets.
+ */
+abstract class BestFirstSearch extends GridSearch {
+
+    // the OPEN SET, ordered by 'f'
+    private final IndexedMinHeap openSet;
+
+    BestFirstSearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        openSet = new IndexedMinHeap(grid.size());
+    }
+
+    /**
+     * Returns the value g of a successor reached from a state with value 'g'
+     * through a move that costs 'cost'
+     */
+    abstract float g(float g, float cost);
+
+    @Override
+    protected final void init() {
+        // 1. OPEN SET: = [So], CLOSED SET: = []
+        openSet.clear();
+        for (int s : starts()) {
+            space.setG(s, 0);
+            openSet.insert(s, heuristic(s));
+            mark(s, OPEN);
+        }
+    }
+
+    @Override
+    protected final boolean supportsMany() {
+        return true;
+    }
+
+    @Override
+    protected final long queueOperations() {
+        return openSet.operations();
+    }
+
+    @Override
+    protected final void expand() {
+        // 2. If OPEN SET = [], then terminate. There is no solution.
+        if (openSet.isEmpty()) {
+            status = NO_PATH;
+            return;
+        }
+        // 3. Remove the first state, Si, from OPEN SET,
+        // for which f(Si) ≤ f(Sj) for all other
+        // open states Sj  ...
+        int current = openSet.poll();
+        // ... and add it to CLOSED SET.
+        mark(current, CLOSED);
+        // If the selected node is the target then terminate
+        if (isTarget(current)) {
+            found(current);
+            return;
+        }
+        expanded++;
+        // 4. Create the successors of Si.
+        int n = successors(current);
+        float currentG = space.g(current);
+        // 5. For each successor of Si, ...
+        for (int i = 0; i < n; i++) {
+            int cell = succ[i];
+            // ... calculate the value g(Sj). Since h(Sj) does not depend on
+            // the path, comparing the values f of two states Sj is the same
+            // as comparing their values g.
+            float g = g(currentG, succCost[i]);
+            byte state = space.state(cell);
+            if (state == UNSEEN) {
+                // ... if Sj is neither in the OPEN SET nor in the CLOSED SET states,
+                // then add Sj in the OPEN SET evaluated as f(Sj)
+                space.setG(cell, g);
+                space.setParent(cell, current);
+                openSet.insert(cell, g + heuristic(cell));
+                mark(cell, OPEN);
+            } else if (g < space.g(cell)) {
+                // ... if already belongs to the OPEN SET or the CLOSED SET
+                // and the new value is better than the old one,
+                // then replace the old element in the OPEN SET.
+                space.setG(cell, g);
+                space.setParent(cell, current);
+                if (state == OPEN) {
+                    openSet.decreaseKey(cell, g + heuristic(cell));
+                } else {
+                    openSet.insert(cell, g + heuristic(cell));
+                    mark(cell, OPEN);
+                }
+            }
+        }
+    } // end expand()
+
+} // end class BestFirstSearch
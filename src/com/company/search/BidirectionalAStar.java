@@ -0,0 +1,24 @@
+package com.company.search;
+
+/**
+ * Bidirectional A*. The two searches use the average of the two
+ * estimates as potential: p(v) = (h(v,target) - h(v,start)) / 2 for the
+ * forward search and -p(v) for the backward one. With these keys both
+ * searches work on the same reduced distances, so the stopping rule
+ * of bidirectional Dijkstra's algorithm is still correct: stop when
+ * the sum of the smallest keys of the two frontiers reaches the length
+ * of the best path found.
+ */
+public final class BidirectionalAStar extends BidirectionalDijkstra {
+
+    public BidirectionalAStar(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+    }
+
+    @Override
+    float key(boolean forward, int id, float g) {
+        float potential = (float) (distBetween(id, target) - distBetween(id, start)) / 2;
+        return forward ? g + potential : g - potential;
+    }
+
+} // end class BidirectionalAStar
@@ -0,0 +1,74 @@
+package com.company.search;
+
+/**
+ * Bidirectional Breadth First Search. Both searches count the moves
+ * from their own end, and the one with the smaller frontier expands.
+ * The search stops when the sum of the depths of the two frontiers
+ * reaches the number of moves of the best path found, so the path
+ * has the fewest moves, like the one of BFS.
+ */
+public final class BidirectionalBfs extends BidirectionalSearch {
+
+    // the two frontiers: queues that hold the states between 'head' and 'tail'
+    private final int[] forwardQueue, backwardQueue;
+    private int forwardHead, forwardTail, backwardHead, backwardTail;
+
+    public BidirectionalBfs(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        forwardQueue = new int[grid.size()];
+        backwardQueue = new int[grid.size()];
+    }
+
+    @Override
+    void initFrontiers() {
+        forwardHead = backwardHead = 0;
+        forwardTail = backwardTail = 0;
+        forwardQueue[forwardTail++] = start;
+        backwardQueue[backwardTail++] = target;
+        mark(space, start, OPEN);
+        mark(backward, target, OPEN);
+    }
+
+    @Override
+    protected void expand() {
+        if (forwardHead == forwardTail || backwardHead == backwardTail) {
+            // one of the two searches has explored all the cells it can reach
+            status = best < INFINITY ? FOUND : NO_PATH;
+            return;
+        }
+        if (space.g(forwardQueue[forwardHead]) + backward.g(backwardQueue[backwardHead]) >= best) {
+            status = FOUND;
+            return;
+        }
+        if (forwardTail - forwardHead <= backwardTail - backwardHead)
+            forwardTail = expand(space, backward, forwardQueue, forwardHead++, forwardTail);
+        else
+            backwardTail = expand(backward, space, backwardQueue, backwardHead++, backwardTail);
+    } // end expand()
+
+    /**
+     * Expands the first cell of a frontier
+     *
+     * @return the new tail of the frontier
+     */
+    private int expand(SearchSpace side, SearchSpace other, int[] queue, int head, int tail) {
+        int u = queue[head];
+        mark(side, u, CLOSED);
+        expanded++;
+        float depth = side.g(u) + 1;
+        int n = successors(u);
+        for (int i = 0; i < n; i++) {
+            int v = succ[i];
+            if (side.state(v) == UNSEEN) {
+                side.setG(v, depth);
+                side.setParent(v, u);
+                queue[tail++] = v;
+                mark(side, v, OPEN);
+                if (other.state(v) != UNSEEN)
+                    touched(v);
+            }
+        }
+        return tail;
+    } // end expand()
+
+} // end class BidirectionalBfs
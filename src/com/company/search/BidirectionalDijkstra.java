@@ -0,0 +1,90 @@
+package com.company.search;
+
+/**
+ * Bidirectional Dijkstra's algorithm. Both searches add a cell to their
+ * queue when they first reach it, and the one with the smaller queue
+ * expands. The search stops when the sum of the smallest distances
+ * in the two queues reaches the length of the best path found.
+ */
+public class BidirectionalDijkstra extends BidirectionalSearch {
+
+    // the two frontiers, ordered by 'key'
+    final IndexedMinHeap forwardQueue, backwardQueue;
+
+    public BidirectionalDijkstra(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        forwardQueue = new IndexedMinHeap(grid.size());
+        backwardQueue = new IndexedMinHeap(grid.size());
+    }
+
+    /**
+     * Returns the key of a cell at distance 'g' from the end
+     * where the search started
+     */
+    float key(boolean forward, int id, float g) {
+        return g;
+    }
+
+    @Override
+    final void initFrontiers() {
+        forwardQueue.clear();
+        backwardQueue.clear();
+        forwardQueue.insert(start, key(true, start, 0));
+        backwardQueue.insert(target, key(false, target, 0));
+        mark(space, start, OPEN);
+        mark(backward, target, OPEN);
+    }
+
+    @Override
+    protected final long queueOperations() {
+        return forwardQueue.operations() + backwardQueue.operations();
+    }
+
+    @Override
+    protected final void expand() {
+        if (forwardQueue.isEmpty() || backwardQueue.isEmpty()) {
+            // one of the two searches has explored all the cells it can reach
+            status = best < INFINITY ? FOUND : NO_PATH;
+            return;
+        }
+        // no path through the cells still in the frontiers
+        // can be shorter than the best one found
+        if (forwardQueue.key(forwardQueue.peek()) + backwardQueue.key(backwardQueue.peek()) >= best) {
+            status = FOUND;
+            return;
+        }
+        if (forwardQueue.size() <= backwardQueue.size())
+            expand(true, space, backward, forwardQueue);
+        else
+            expand(false, backward, space, backwardQueue);
+    } // end expand()
+
+    /**
+     * Expands the first cell of a frontier
+     */
+    private void expand(boolean forward, SearchSpace side, SearchSpace other, IndexedMinHeap queue) {
+        int u = queue.poll();
+        mark(side, u, CLOSED);
+        expanded++;
+        float g = side.g(u);
+        int n = successors(u);
+        for (int i = 0; i < n; i++) {
+            int v = succ[i];
+            float alt = g + succCost[i];
+            byte state = side.state(v);
+            if (state != CLOSED && alt < side.g(v)) {
+                side.setG(v, alt);
+                side.setParent(v, u);
+                if (state == OPEN) {
+                    queue.decreaseKey(v, key(forward, v, alt));
+                } else {
+                    queue.insert(v, key(forward, v, alt));
+                    mark(side, v, OPEN);
+                }
+            }
+            if (other.state(v) != UNSEEN)
+                touched(v);
+        }
+    } // end expand()
+
+} // end class BidirectionalDijkstra
@@ -0,0 +1,104 @@
+package com.company.search;
+
+/**
+ * Common part of the bidirectional searches. One search starts from the
+ * robot and another from the target, and they expand in turn until the
+ * shortest path through a cell reached by both of them cannot be improved.
+ *
+ * The forward search keeps its data in 'space' and the backward search
+ * in 'backward'. A cell is shown as CLOSED (or OPEN) if it is closed
+ * (or open) in at least one of the two searches.
+ */
+abstract class BidirectionalSearch extends GridSearch {
+
+    static final float INFINITY = SearchSpace.INFINITY;
+
+    // the data of the search that starts from the target
+    final SearchSpace backward;
+
+    float best; // the length of the shortest path found so far
+    int meet;   // the cell where the two halves of that path meet
+
+    BidirectionalSearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        backward = new SearchSpace(grid.size());
+    }
+
+    /**
+     * Puts the start in the forward frontier
+     * and the target in the backward frontier
+     */
+    abstract void initFrontiers();
+
+    @Override
+    protected final void init() {
+        backward.clear();
+        best = INFINITY;
+        meet = -1;
+        space.setG(start, 0);
+        backward.setG(target, 0);
+        initFrontiers();
+        touched(start);
+    }
+
+    /**
+     * Changes the state of a cell in the forward or the backward search
+     * and notifies the listener about the combined state.
+     */
+    final void mark(SearchSpace side, int id, byte state) {
+        side.setState(id, state);
+        if (listener != null)
+            listener.cellChanged(id, state(id));
+    }
+
+    /**
+     * Called after a search changes the distance of a cell:
+     * if the other search has reached the cell too,
+     * the path through it may be the shortest one.
+     */
+    final void touched(int id) {
+        float length = space.g(id) + backward.g(id);
+        if (length < best) {
+            best = length;
+            meet = id;
+        }
+    }
+
+    @Override
+    public final byte state(int id) {
+        // CLOSED > OPEN > UNSEEN
+        return (byte) Math.max(space.state(id), backward.state(id));
+    }
+
+    /**
+     * Returns the predecessor of the cell in the forward search, or,
+     * for the cells reached only by the backward search, the cell
+     * that follows it on the way to the target.
+     */
+    @Override
+    public final int parent(int id) {
+        if (space.state(id) != UNSEEN)
+            return space.parent(id);
+        return backward.parent(id);
+    }
+
+    @Override
+    public final int[] path() {
+        if (status != FOUND)
+            return new int[0];
+        int before = 0, after = 0;
+        for (int cur = meet; cur != start; cur = space.parent(cur))
+            before++;
+        for (int cur = meet; cur != target; cur = backward.parent(cur))
+            after++;
+        int[] path = new int[before + after + 1];
+        int i = before;
+        for (int cur = meet; i >= 0; cur = space.parent(cur))
+            path[i--] = cur;
+        i = before;
+        for (int cur = meet; cur != target; )
+            path[++i] = cur = backward.parent(cur);
+        return path;
+    } // end path()
+
+} // end class BidirectionalSearch
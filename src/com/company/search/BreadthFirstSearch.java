@@ -0,0 +1,67 @@
+package com.company.search;
+
+/**
+ * Breadth First Search: the successors are added
+ * at the end of the OPEN SET.
+ * The path has the fewest moves, which on a weighted grid
+ * is not always the cheapest one.
+ * It can also start from many cells and end at the first of many targets.
+ */
+public final class BreadthFirstSearch extends GridSearch {
+
+    // the OPEN SET, a queue holding the states between 'head' and 'tail'.
+    // Every cell enters the queue at most once, so it never wraps around.
+    private final int[] openSet;
+    private int head, tail;
+
+    public BreadthFirstSearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        openSet = new int[grid.size()];
+    }
+
+    @Override
+    protected void init() {
+        // 1. OPEN SET: = [So], CLOSED SET: = []
+        head = tail = 0;
+        for (int s : starts())
+            open(s, -1);
+    }
+
+    @Override
+    protected boolean supportsMany() {
+        return true;
+    }
+
+    private void open(int id, int prev) {
+        space.setParent(id, prev);
+        openSet[tail++] = id;
+        mark(id, OPEN);
+    }
+
+    @Override
+    protected void expand() {
+        // 2. If OPEN SET = [], then terminate. There is no solution.
+        if (head == tail) {
+            status = NO_PATH;
+            return;
+        }
+        // 3. Remove the first state, Si, from OPEN SET ...
+        int current = openSet[head++];
+        // ... and add it to CLOSED SET.
+        mark(current, CLOSED);
+        // If the selected node is the target then terminate
+        if (isTarget(current)) {
+            found(current);
+            return;
+        }
+        expanded++;
+        // 4. Create the successors of Si, that belong
+        //    neither to the OPEN SET nor to the CLOSED SET.
+        int n = successors(current);
+        // 5. Add each successor at the end of the list OPEN SET.
+        for (int i = 0; i < n; i++)
+            if (space.state(succ[i]) == UNSEEN)
+                open(succ[i], current);
+    } // end expand()
+
+} // end class BreadthFirstSearch
@@ -0,0 +1,149 @@
+package com.company.search;
+
+import java.util.Arrays;
+
+/**
+ * A bucket queue (Dial's queue) of cells ordered by a key.
+ * Bucket b holds the cells whose key has integer part b, in a doubly
+ * linked list, so a cell is inserted, moved or removed in O(1) time,
+ * and the smallest key is found by scanning the buckets forward.
+ *
+ * The keys must never be less than the integer part of the last key
+ * removed, and never more than BUCKETS - 1 above it, which holds for
+ * Dijkstra's algorithm when no move costs more than BUCKETS - 1:
+ * the buckets are then used in a circle. Cells of the same bucket come
+ * out in any order, which is still exact for Dijkstra's algorithm
+ * when no move costs less than 1, the width of a bucket.
+ */
+final class BucketQueue {
+
+    // more than the cost of the longest move, SQRT2 * Grid.MAX_COST
+    static final int BUCKETS = 512;
+
+    private final int[] first = new int[BUCKETS]; // the first cell of every bucket, -1 if empty
+    private final int[] next;     // the next cell in the same bucket, -1 if last
+    private final int[] previous; // the previous cell in the same bucket, -1 if first
+    private final int[] bucket;   // the bucket of each cell in the queue, -1 if absent
+    private int size;             // the number of cells in the queue
+    private int current;          // no bucket before this one holds a cell
+    private long operations;      // the insertions, decreases and removals so far
+
+    /**
+     * @param capacity the number of cells of the grid
+     */
+    BucketQueue(int capacity) {
+        next = new int[capacity];
+        previous = new int[capacity];
+        bucket = new int[capacity];
+        Arrays.fill(first, -1);
+        Arrays.fill(bucket, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int id) {
+        return bucket[id] != -1;
+    }
+
+    /**
+     * Returns the number of insertions, decreases and removals since the queue was created
+     */
+    long operations() {
+        return operations;
+    }
+
+    /**
+     * Adds a cell that is not in the queue
+     */
+    void insert(int id, float k) {
+        operations++;
+        link(id, k);
+    }
+
+    /**
+     * Gives a smaller key to a cell that is already in the queue
+     */
+    void decreaseKey(int id, float k) {
+        operations++;
+        unlink(id);
+        link(id, k);
+    }
+
+    /**
+     * Returns the smallest integer part of the keys in the queue, which must not be empty
+     */
+    int minimum() {
+        while (first[current & (BUCKETS - 1)] == -1)
+            current++;
+        return current;
+    }
+
+    /**
+     * Removes and returns a cell with the smallest integer part of the key
+     */
+    int poll() {
+        int id = first[minimum() & (BUCKETS - 1)];
+        remove(id);
+        return id;
+    }
+
+    /**
+     * Removes a cell that is in the queue
+     */
+    void remove(int id) {
+        operations++;
+        unlink(id);
+    }
+
+    /**
+     * Puts the cell at the front of the bucket of its key
+     */
+    private void link(int id, float k) {
+        int b = (int) k;
+        if (size == 0 || b < current)
+            current = b;
+        b &= BUCKETS - 1;
+        bucket[id] = b;
+        previous[id] = -1;
+        next[id] = first[b];
+        if (first[b] != -1)
+            previous[first[b]] = id;
+        first[b] = id;
+        size++;
+    } // end link()
+
+    /**
+     * Takes the cell out of the list of its bucket
+     */
+    private void unlink(int id) {
+        int b = bucket[id];
+        if (previous[id] != -1)
+            next[previous[id]] = next[id];
+        else
+            first[b] = next[id];
+        if (next[id] != -1)
+            previous[next[id]] = previous[id];
+        bucket[id] = -1;
+        size--;
+    } // end unlink()
+
+    /**
+     * Removes all the cells, in time proportional to their number
+     * and to the number of buckets
+     */
+    void clear() {
+        for (int b = 0; b < BUCKETS; b++) {
+            for (int id = first[b]; id != -1; id = next[id])
+                bucket[id] = -1;
+            first[b] = -1;
+        }
+        size = 0;
+    }
+
+} // end class BucketQueue
@@ -0,0 +1,313 @@
+package com.company.search;
+
+import java.util.Arrays;
+
+/**
+ * The connected components of the free cells of a grid, so that
+ * a query whose target is in another component than the robot
+ * can be answered at once, without any search.
+ *
+ * A diagonal move is allowed only when one of its side cells is free,
+ * and then the two cells are also joined through that side cell:
+ * the components are the same with and without diagonal movements,
+ * and only the four orthogonal neighbors of a cell are considered.
+ *
+ * Every free cell has a label, and the labels of one component are
+ * joined in a union-find. The grid keeps its components up to date:
+ * a cell that becomes free joins the components around it. A cell that
+ * becomes an obstacle may split its component, if its free neighbors are
+ * not connected through the eight cells around it. Then a search starts
+ * from every neighbor, and they take turns expanding one cell each: two
+ * searches that meet are in the same part, and a search that runs out of
+ * cells has found a part of its own, which gets a new label. The parts
+ * that are found are never larger than the others, and when all the
+ * searches have met nothing is labeled again.
+ */
+public final class ConnectedComponents {
+
+    // the rows and columns of the eight cells around a cell,
+    // clockwise from the cell above
+    private static final int[] RING_ROW = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] RING_COL = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    private final Grid grid;
+    private final int rows, columns;
+
+    private final int[] label; // the label of every free cell, -1 for the obstacles
+    private int[] parent;      // the parent of every label in the union-find
+    private int[] count;       // the number of labels below every root label
+    private int labels;        // the number of labels in use
+
+    private int[] stack = new int[64]; // the cells to be labeled
+
+    // the searches for the parts of a split component: for every cell,
+    // the round and the search that reached it, as round * 4 + search;
+    // for every search, the cells it has reached, of which those after
+    // 'head' have not been expanded yet, and the search it has met,
+    // which has taken its cells
+    private int[] visit;
+    private int round;
+    private final int[][] reached = new int[4][];
+    private final int[] head = new int[4];
+    private final int[] tail = new int[4];
+    private final int[] met = new int[4];
+
+    ConnectedComponents(Grid grid) {
+        this.grid = grid;
+        this.rows = grid.rows();
+        this.columns = grid.columns();
+        label = new int[grid.size()];
+        parent = new int[64];
+        count = new int[64];
+        build();
+    }
+
+    /**
+     * Returns true if there is a path between the two cells
+     */
+    public boolean connected(int u, int v) {
+        if (u == v)
+            return true;
+        int a = label[u], b = label[v];
+        return a != -1 && b != -1 && find(a) == find(b);
+    }
+
+    /**
+     * Labels again all the cells
+     */
+    void build() {
+        labels = 0;
+        Arrays.fill(label, 0);
+        for (int id = 0; id < label.length; id++)
+            if (grid.isObstacle(id))
+                label[id] = -1;
+        // 0 means not labeled yet, so the labels of the cells start from 1
+        newLabel();
+        for (int id = 0; id < label.length; id++)
+            if (label[id] == 0)
+                fill(id, newLabel());
+    } // end build()
+
+    /**
+     * Tells the components that cell 'id' became an obstacle or a free cell
+     */
+    void obstacleChanged(int id, boolean obstacle) {
+        int r = id / columns;
+        int c = id - r * columns;
+        if (!obstacle) {
+            // The cell takes the label of a free neighbor and joins
+            // the components of the others; only a cell without free
+            // neighbors needs a new label.
+            int l = -1;
+            for (int k = 0; k < 8; k += 2) {
+                int nr = r + RING_ROW[k], nc = c + RING_COL[k];
+                if (!free(nr, nc))
+                    continue;
+                if (l == -1)
+                    l = label[nr * columns + nc];
+                else
+                    union(l, label[nr * columns + nc]);
+            }
+            if (l != -1)
+                label[id] = l;
+            else if (!compact())
+                label[id] = newLabel();
+            return;
+        }
+        label[id] = -1;
+        if (maySplit(r, c) && !compact())
+            split(r, c);
+    } // end obstacleChanged()
+
+    /**
+     * Labels again all the cells if the labels no longer in use are too many
+     *
+     * @return true if the cells have been labeled again
+     */
+    private boolean compact() {
+        if (labels <= 2 * label.length)
+            return false;
+        build();
+        return true;
+    }
+
+    /**
+     * Finds the parts in which the component of the new obstacle (r,c)
+     * may have been split, and gives new labels to all of them but one
+     */
+    private void split(int r, int c) {
+        if (visit == null)
+            visit = new int[label.length];
+        if (++round > Integer.MAX_VALUE >> 2) {
+            Arrays.fill(visit, 0);
+            round = 1;
+        }
+        // 1. a search from every free neighbor
+        int searches = 0;
+        for (int k = 0; k < 8; k += 2) {
+            int nr = r + RING_ROW[k], nc = c + RING_COL[k];
+            if (!free(nr, nc))
+                continue;
+            int s = searches++;
+            if (reached[s] == null)
+                reached[s] = new int[64];
+            reached[s][0] = nr * columns + nc;
+            visit[nr * columns + nc] = round << 2 | s;
+            head[s] = 0;
+            tail[s] = 1;
+            met[s] = s;
+        }
+        // 2. the searches take turns until only one has neither met
+        // another one nor run out of cells: that one keeps the old labels
+        int active = searches;
+        while (active > 1) {
+            for (int s = 0; s < searches && active > 1; s++) {
+                if (met[s] != s)
+                    continue;
+                if (head[s] == tail[s]) {
+                    // a part of its own
+                    int l = newLabel();
+                    for (int i = 0; i < tail[s]; i++)
+                        label[reached[s][i]] = l;
+                    met[s] = -1;
+                    active--;
+                } else if (expand(s)) {
+                    active--;
+                }
+            }
+        }
+    } // end split()
+
+    /**
+     * Expands the next cell of search s.
+     *
+     * @return true if the search has met another one
+     */
+    private boolean expand(int s) {
+        int cur = reached[s][head[s]++];
+        int r = cur / columns;
+        int c = cur - r * columns;
+        for (int k = 0; k < 8; k += 2) {
+            int nr = r + RING_ROW[k], nc = c + RING_COL[k];
+            if (!free(nr, nc))
+                continue;
+            int next = nr * columns + nc;
+            int v = visit[next];
+            if (v >>> 2 != round) {
+                visit[next] = round << 2 | s;
+                if (tail[s] == reached[s].length)
+                    reached[s] = Arrays.copyOf(reached[s], 2 * tail[s]);
+                reached[s][tail[s]++] = next;
+            } else {
+                // the search that reached the cell, or the one it has met since
+                int t = v & 3;
+                while (met[t] != t)
+                    t = met[t];
+                if (t != s) {
+                    // t goes on with the cells of s, also to label them if it runs out
+                    if (tail[t] + tail[s] > reached[t].length)
+                        reached[t] = Arrays.copyOf(reached[t], 2 * (tail[t] + tail[s]));
+                    System.arraycopy(reached[s], 0, reached[t], tail[t], tail[s]);
+                    tail[t] += tail[s];
+                    met[s] = t;
+                    return true;
+                }
+            }
+        }
+        return false;
+    } // end expand()
+
+    /**
+     * Returns true if the free orthogonal neighbors of cell (r,c) are not all
+     * connected through the eight cells around it. Consecutive cells around it
+     * are orthogonal neighbors, so they are connected if they are in the same
+     * run of free cells.
+     */
+    private boolean maySplit(int r, int c) {
+        int blocked = -1;
+        for (int k = 0; k < 8 && blocked == -1; k++)
+            if (!free(r + RING_ROW[k], c + RING_COL[k]))
+                blocked = k;
+        if (blocked == -1)
+            return false;
+        int runs = 0;           // the runs of free cells with an orthogonal neighbor
+        boolean counted = false; // the current run has been counted
+        for (int i = 1; i <= 8; i++) {
+            int k = (blocked + i) & 7;
+            if (!free(r + RING_ROW[k], c + RING_COL[k])) {
+                counted = false;
+            } else if (k % 2 == 0 && !counted) {
+                counted = true;
+                runs++;
+            }
+        }
+        return runs > 1;
+    } // end maySplit()
+
+    private boolean free(int r, int c) {
+        return r >= 0 && r < rows && c >= 0 && c < columns && label[r * columns + c] != -1;
+    }
+
+    /**
+     * Gives label 'l' to the cell and to all the free cells
+     * connected with it that have not been labeled yet
+     */
+    private void fill(int id, int l) {
+        int top = 0;
+        stack[top++] = id;
+        label[id] = l;
+        while (top > 0) {
+            int cur = stack[--top];
+            int r = cur / columns;
+            int c = cur - r * columns;
+            for (int k = 0; k < 8; k += 2) {
+                int nr = r + RING_ROW[k], nc = c + RING_COL[k];
+                if (!free(nr, nc))
+                    continue;
+                int next = nr * columns + nc;
+                if (label[next] == 0) {
+                    label[next] = l;
+                    if (top == stack.length)
+                        stack = Arrays.copyOf(stack, 2 * top);
+                    stack[top++] = next;
+                }
+            }
+        }
+    } // end fill()
+
+    private int newLabel() {
+        if (labels == parent.length) {
+            parent = Arrays.copyOf(parent, 2 * labels);
+            count = Arrays.copyOf(count, 2 * labels);
+        }
+        parent[labels] = labels;
+        count[labels] = 1;
+        return labels++;
+    }
+
+    /**
+     * Returns the root of the label. The paths are not compressed,
+     * so that queries only read; the smaller tree always goes under the
+     * larger one, so a path is never longer than the logarithm of the labels.
+     */
+    private int find(int l) {
+        while (parent[l] != l)
+            l = parent[l];
+        return l;
+    }
+
+    private void union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b)
+            return;
+        if (count[a] < count[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        parent[b] = a;
+        count[a] += count[b];
+    }
+
+} // end class ConnectedComponents
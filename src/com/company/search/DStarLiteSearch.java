@@ -0,0 +1,272 @@
+package com.company.search;
+
+/**
+ * D* Lite: an incremental search that can repair its result after
+ * obstacles are added or removed and after the robot moves, instead of
+ * searching again from scratch.
+ *
+ * The search runs from the target to the robot. Every cell has a
+ * distance g from the target and a one-step lookahead rhs, the smallest
+ * cost through one of its neighbors. The cells where the two differ are
+ * kept in the OPEN SET, and only those are expanded, so a change of the
+ * grid costs work only where the distances actually change.
+ *
+ * After a change of the grid call obstacleChanged() for every changed
+ * cell, or moveStart() when the robot moves, and then step() or replan()
+ * until the search comes to an end. A change of cost counts as a change
+ * too. A new target needs reset().
+ */
+public final class DStarLiteSearch extends GridSearch {
+
+    static final float INFINITY = SearchSpace.INFINITY;
+
+    // the relative rounding error of a sum of float costs along a path
+    private static final float TOLERANCE = 1e-4f;
+
+    private final boolean informed; // use the heuristic, or behave like Dijkstra
+
+    // the lookahead 'rhs' of every cell, kept in the distances of a second space
+    private final SearchSpace lookahead;
+
+    // the OPEN SET, ordered by [min(g,rhs) + h + km; min(g,rhs)]
+    private final IndexedPairHeap openSet;
+
+    private float km; // the sum of the heuristics between the positions of the robot
+
+    // the neighbors scanned by bestNeighbor() and parent(), which must
+    // neither count them as generated nor overwrite the successors
+    private final int[] nbr = new int[8];
+    private final float[] nbrCost = new float[8];
+
+    public DStarLiteSearch(Grid grid, boolean diagonal) {
+        this(grid, diagonal, true);
+    }
+
+    /**
+     * @param informed true to direct the search with the heuristic like A*,
+     *                 false to expand the cells in order of distance like Dijkstra
+     */
+    public DStarLiteSearch(Grid grid, boolean diagonal, boolean informed) {
+        super(grid, diagonal);
+        this.informed = informed;
+        lookahead = new SearchSpace(grid.size());
+        openSet = new IndexedPairHeap(grid.size());
+    }
+
+    @Override
+    protected void init() {
+        lookahead.clear();
+        openSet.clear();
+        km = 0;
+        lookahead.setG(target, 0);
+        openSet.insert(target, h(start, target), 0);
+        mark(target, OPEN);
+    }
+
+    /**
+     * Tells the search that cell 'id' became an obstacle or a free cell,
+     * or that its cost changed. The cell itself and its neighbors get a new
+     * lookahead, because the cell may also open or close the diagonal moves
+     * between its neighbors.
+     */
+    public void obstacleChanged(int id) {
+        int r = id / columns;
+        int c = id - r * columns;
+        for (int i = Math.max(0, r - 1); i <= Math.min(rows - 1, r + 1); i++)
+            for (int j = Math.max(0, c - 1); j <= Math.min(columns - 1, c + 1); j++) {
+                int cell = i * columns + j;
+                if (cell != target)
+                    lookahead.setG(cell, grid.isObstacle(cell) ? INFINITY : bestNeighbor(cell));
+                updateCell(cell);
+            }
+        restart();
+    }
+
+    /**
+     * Moves the robot to cell 'start'. The keys already in the OPEN SET
+     * are not recomputed: km grows instead, so that they stay lower bounds.
+     */
+    public void moveStart(int start) {
+        km += h(this.start, start);
+        this.start = start;
+        restart();
+    }
+
+    /**
+     * Continues the search after a change, up to its end
+     */
+    public SearchResult replan() {
+        while (step());
+        return result();
+    }
+
+    private void restart() {
+        expanded = 0;
+        status = reachable() ? RUNNING : NO_PATH;
+    }
+
+    @Override
+    protected boolean isIncremental() {
+        return true;
+    }
+
+    @Override
+    protected long queueOperations() {
+        return openSet.operations();
+    }
+
+    @Override
+    protected void expand() {
+        // The search ends when the robot is consistent and no cell of the
+        // OPEN SET can give it a shorter path. The cells whose key equals
+        // that of the robot, up to rounding errors, are expanded too:
+        // all the cells of the path must have their final distance.
+        float startKey = Math.min(g(start), rhs(start)) + km;
+        if (openSet.isEmpty() ||
+                (openSet.key1(openSet.peek()) > startKey + startKey * TOLERANCE && rhs(start) <= g(start))) {
+            status = rhs(start) < INFINITY ? FOUND : NO_PATH;
+            return;
+        }
+        int u = openSet.peek();
+        float k2 = Math.min(g(u), rhs(u));
+        float k1 = k2 + h(start, u) + km;
+        // the key was computed for an older position of the robot
+        if (less(openSet.key1(u), openSet.key2(u), k1, k2)) {
+            openSet.update(u, k1, k2);
+            return;
+        }
+        expanded++;
+        float oldG = g(u);
+        int n = successors(u);
+        if (oldG > rhs(u)) {
+            // The cell got closer: its neighbors may get closer through it.
+            space.setG(u, rhs(u));
+            openSet.remove(u);
+            mark(u, CLOSED);
+            for (int i = 0; i < n; i++) {
+                int s = succ[i];
+                float alt = g(u) + succCost[i];
+                if (s != target && alt < rhs(s)) {
+                    lookahead.setG(s, alt);
+                    updateCell(s);
+                }
+            }
+        } else {
+            // The cell got farther: it and the neighbors whose lookahead
+            // came through it must find their best neighbor again.
+            space.setG(u, INFINITY);
+            if (u != target)
+                lookahead.setG(u, grid.isObstacle(u) ? INFINITY : bestNeighbor(u));
+            updateCell(u);
+            for (int i = 0; i < n; i++) {
+                int s = succ[i];
+                if (s != target && rhs(s) == oldG + succCost[i]) {
+                    lookahead.setG(s, bestNeighbor(s));
+                    updateCell(s);
+                }
+            }
+        }
+    } // end expand()
+
+    /**
+     * Puts the cell in the OPEN SET if its distance and its lookahead differ,
+     * or takes it out if they are equal.
+     */
+    private void updateCell(int id) {
+        float g = g(id), rhs = rhs(id);
+        boolean open = openSet.contains(id);
+        if (g != rhs) {
+            float k2 = Math.min(g, rhs);
+            float k1 = k2 + h(start, id) + km;
+            if (open) {
+                openSet.update(id, k1, k2);
+            } else {
+                openSet.insert(id, k1, k2);
+                mark(id, OPEN);
+            }
+        } else if (open) {
+            openSet.remove(id);
+            mark(id, g < INFINITY ? CLOSED : UNSEEN);
+        }
+    } // end updateCell()
+
+    /**
+     * Returns the smallest cost to reach the target through a neighbor of the cell
+     */
+    private float bestNeighbor(int id) {
+        float best = INFINITY;
+        int n = neighbors(id, nbr, nbrCost);
+        for (int i = 0; i < n; i++)
+            best = Math.min(best, nbrCost[i] + g(nbr[i]));
+        return best;
+    }
+
+    /**
+     * Returns true if the keys [a1;a2] come before the keys [b1;b2]
+     */
+    private static boolean less(float a1, float a2, float b1, float b2) {
+        return a1 < b1 || (a1 == b1 && a2 < b2);
+    }
+
+    private float g(int id) {
+        return space.g(id);
+    }
+
+    private float rhs(int id) {
+        return lookahead.g(id);
+    }
+
+    /**
+     * The estimated distance between two cells, or 0 like Dijkstra
+     */
+    private float h(int u, int v) {
+        return informed ? (float) distBetween(u, v) : 0;
+    }
+
+    /**
+     * Returns the next cell on the way to the target, or -1 if there is none.
+     * The arrows of the search point to the target.
+     */
+    @Override
+    public int parent(int id) {
+        if (id == target)
+            return -1;
+        int next = -1;
+        float best = INFINITY;
+        int n = neighbors(id, nbr, nbrCost);
+        for (int i = 0; i < n; i++) {
+            float cost = nbrCost[i] + g(nbr[i]);
+            if (cost < best) {
+                best = cost;
+                next = nbr[i];
+            }
+        }
+        return next;
+    } // end parent()
+
+    /**
+     * Returns the cells of the path from the start to the target,
+     * following from the robot the neighbors closest to the target.
+     *
+     * @throws IllegalStateException if the neighbors lead nowhere or
+     *         around in a circle, which a consistent search never does
+     */
+    @Override
+    public int[] path() {
+        if (status != FOUND)
+            return new int[0];
+        int steps = 0;
+        for (int cur = start; cur != target; cur = parent(cur)) {
+            if (cur == -1 || steps == grid.size())
+                throw new IllegalStateException("The search does not lead from the robot to the target");
+            steps++;
+        }
+        int[] path = new int[steps + 1];
+        int i = 0;
+        for (int cur = start; cur != target; cur = parent(cur))
+            path[i++] = cur;
+        path[i] = target;
+        return path;
+    } // end path()
+
+} // end class DStarLiteSearch
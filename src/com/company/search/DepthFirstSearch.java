@@ -0,0 +1,59 @@
+package com.company.search;
+
+/**
+ * Depth First Search: the successors are added
+ * at the beginning of the OPEN SET.
+ */
+public final class DepthFirstSearch extends GridSearch {
+
+    // the OPEN SET, a stack whose top is its first state
+    private final int[] openSet;
+    private int top;
+
+    public DepthFirstSearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        openSet = new int[grid.size()];
+    }
+
+    @Override
+    protected void init() {
+        // 1. OPEN SET: = [So], CLOSED SET: = []
+        top = 0;
+        open(start, -1);
+    }
+
+    private void open(int id, int prev) {
+        space.setParent(id, prev);
+        openSet[top++] = id;
+        mark(id, OPEN);
+    }
+
+    @Override
+    protected void expand() {
+        // 2. If OPEN SET = [], then terminate. There is no solution.
+        if (top == 0) {
+            status = NO_PATH;
+            return;
+        }
+        // 3. Remove the first state, Si, from OPEN SET ...
+        int current = openSet[--top];
+        // ... and add it to CLOSED SET.
+        mark(current, CLOSED);
+        // If the selected node is the target then terminate
+        if (current == target) {
+            status = FOUND;
+            return;
+        }
+        expanded++;
+        // 4. Create the successors of Si, that belong
+        //    neither to the OPEN SET nor to the CLOSED SET.
+        int n = successors(current);
+        // 5. Add each successor at the beginning of the list OPEN SET.
+        //    The successors are added in reverse order, so the successor
+        //    corresponding to the highest priority is placed first in the list.
+        for (int i = n - 1; i >= 0; i--)
+            if (space.state(succ[i]) == UNSEEN)
+                open(succ[i], current);
+    } // end expand()
+
+} // end class DepthFirstSearch
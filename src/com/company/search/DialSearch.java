@@ -0,0 +1,100 @@
+package com.company.search;
+
+/**
+ * Dijkstra's algorithm with Dial's bucket queue in place of the heap.
+ *
+ * No move costs less than 1, and none more than SQRT2 * Grid.MAX_COST,
+ * so the distances of the cells in the queue always lie in a window of
+ * a few hundred buckets of width 1, and a cell is added, moved or removed
+ * in constant time. On weighted grids, where the heap holds many cells,
+ * the search costs time almost linear in the cells it reaches.
+ * Like DijkstraSearch in the lazy mode, a vertex enters the queue
+ * when it is reached for the first time, and it can also start
+ * from many cells and end at the nearest of many targets. The cells
+ * of a bucket come out in any order, so when a target comes out,
+ * the rest of its bucket is removed too, to end at the nearest
+ * target of the bucket.
+ */
+public final class DialSearch extends GridSearch {
+
+    // Q: the vertices reached and not yet removed, in buckets of 'dist'
+    private final BucketQueue queue;
+
+    public DialSearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        queue = new BucketQueue(grid.size());
+    }
+
+    @Override
+    protected void init() {
+        queue.clear();
+        for (int s : starts()) {
+            space.setG(s, 0);
+            queue.insert(s, 0);
+            mark(s, OPEN);
+        }
+    }
+
+    @Override
+    protected boolean supportsMany() {
+        return true;
+    }
+
+    @Override
+    protected long queueOperations() {
+        return queue.operations();
+    }
+
+    @Override
+    protected void expand() {
+        if (queue.isEmpty()) {
+            status = NO_PATH;
+            return;
+        }
+        // u := a vertex of Q in the bucket of the smallest distance;
+        // all of them have their final distance, because no move is
+        // shorter than the width of a bucket
+        int u = queue.poll();
+        mark(u, CLOSED);
+        if (isTarget(u)) {
+            found(manyTargets() ? nearestTarget(u) : u);
+            return;
+        }
+        expanded++;
+        float dist = space.g(u);
+        int n = successors(u);
+        for (int i = 0; i < n; i++) {
+            int v = succ[i];
+            if (space.state(v) == CLOSED)
+                continue;
+            float alt = dist + succCost[i];
+            if (alt < space.g(v)) {
+                space.setG(v, alt);
+                space.setParent(v, u);
+                mark(v, OPEN);
+                if (queue.contains(v))
+                    queue.decreaseKey(v, alt);
+                else
+                    queue.insert(v, alt);
+            }
+        }
+    } // end expand()
+
+    /**
+     * Removes the other cells of the bucket of target 'u' and returns
+     * the target of the bucket with the smallest distance. No cell that
+     * is not in the bucket yet can get a distance in it.
+     */
+    private int nearestTarget(int u) {
+        int nearest = u;
+        int bucket = (int) space.g(u);
+        while (!queue.isEmpty() && queue.minimum() == bucket) {
+            int v = queue.poll();
+            mark(v, CLOSED);
+            if (isTarget(v) && space.g(v) < space.g(nearest))
+                nearest = v;
+        }
+        return nearest;
+    } // end nearestTarget()
+
+} // end class DialSearch
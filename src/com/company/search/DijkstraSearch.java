@@ -0,0 +1,145 @@
+package com.company.search;
+
+/**
+ * Dijkstra's algorithm on the graph formed by the connected component
+ * to which the initial position of the robot belongs.
+ *
+ * In the lazy mode, the default, Q starts with the robot alone and a vertex
+ * enters Q when it is reached for the first time, so a search costs only the
+ * cells closer than the target, not the whole component.
+ * It can also start from many cells and end at the first of many targets.
+ */
+public final class DijkstraSearch extends GridSearch {
+
+    private static final float INFINITY = SearchSpace.INFINITY;
+
+    private final boolean lazy; // add the vertices to Q when they are reached
+
+    // Q: the vertices not yet removed, ordered by 'dist'
+    private final IndexedMinHeap graph;
+    // the stack used to find the connected component, only in the eager mode
+    private final int[] stack;
+
+    public DijkstraSearch(Grid grid, boolean diagonal) {
+        this(grid, diagonal, true);
+    }
+
+    /**
+     * @param lazy true to add the vertices to Q when they are reached,
+     *             false to add the whole connected component first
+     */
+    public DijkstraSearch(Grid grid, boolean diagonal, boolean lazy) {
+        super(grid, diagonal);
+        this.lazy = lazy;
+        graph = new IndexedMinHeap(grid.size());
+        stack = lazy ? null : new int[grid.size()];
+    }
+
+    @Override
+    protected void init() {
+        graph.clear();
+        if (lazy) {
+            for (int s : starts()) {
+                space.setG(s, 0);
+                graph.insert(s, 0);
+                mark(s, OPEN);
+            }
+            return;
+        }
+        // First create the connected component
+        // to which the initial position of the robot belongs.
+        // 2: for each vertex v in Graph;
+        // 3: dist[v] := infinity ;
+        // 5: previous[v] := undefined ;
+        // 9: Q := the set of all nodes in Graph;
+        for (int s : starts())
+            if (!graph.contains(s))
+                findConnectedComponent(s);
+        // 8: dist[source] := 0;
+        for (int s : starts()) {
+            space.setG(s, 0);
+            graph.decreaseKey(s, 0);
+        }
+    }
+
+    @Override
+    protected boolean supportsMany() {
+        return true;
+    }
+
+    @Override
+    protected long queueOperations() {
+        return graph.operations();
+    }
+
+    /**
+     * Adds to Q, with infinite distance, only the cells
+     * belonging to the same connected component with cell v.
+     * Finding them does not count as generating them.
+     */
+    private void findConnectedComponent(int v) {
+        int top = 0;
+        stack[top++] = v;
+        graph.insert(v, INFINITY);
+        while (top > 0) {
+            int n = neighbors(stack[--top], succ, succCost);
+            for (int i = 0; i < n; i++) {
+                if (!graph.contains(succ[i])) {
+                    stack[top++] = succ[i];
+                    graph.insert(succ[i], INFINITY);
+                }
+            }
+        }
+    } // end findConnectedComponent()
+
+    @Override
+    protected void expand() {
+        // 11: while Q is not empty:
+        if (graph.isEmpty()) {
+            status = NO_PATH;
+            return;
+        }
+        // 12:  u := vertex in Q (graph) with smallest distance in dist[] ;
+        // 13:  remove u from Q (graph);
+        int u = graph.poll();
+        mark(u, CLOSED);
+        // If target has been found ...
+        if (isTarget(u)) {
+            found(u);
+            return;
+        }
+        expanded++;
+        float dist = space.g(u);
+        // 14: if dist[u] = infinity:
+        if (dist == INFINITY) {
+            // ... then there is no solution.
+            // 15: break;
+            status = NO_PATH;
+            return;
+        } // 16: end if
+        // 18: for each neighbor v of u still in Q:
+        // (in the lazy mode, that is not removed from Q yet)
+        int n = successors(u);
+        for (int i = 0; i < n; i++) {
+            int v = succ[i];
+            if (lazy ? space.state(v) == CLOSED : !graph.contains(v))
+                continue;
+            // 20: alt := dist[u] + dist_between(u, v) ;
+            float alt = dist + succCost[i];
+            // 21: if alt < dist[v]:
+            if (alt < space.g(v)) {
+                // 22: dist[v] := alt ;
+                space.setG(v, alt);
+                // 23: previous[v] := u ;
+                space.setParent(v, u);
+                mark(v, OPEN);
+                // 24: decrease-key v in Q;
+                if (graph.contains(v))
+                    graph.decreaseKey(v, alt);
+                else
+                    graph.insert(v, alt);
+            }
+        }
+    } // end expand()
+
+} // end class DijkstraSearch
@@ -0,0 +1,148 @@
+package com.company.search;
+
+import java.util.Arrays;
+
+/**
+ * The distances of all the cells to one target, and the direction of
+ * the first move toward it from every cell, for many robots that go
+ * to the same target.
+ *
+ * compute() runs Dijkstra's algorithm once, backwards from the target,
+ * over the whole component of the target. The moves are the same in both
+ * directions, also with diagonal movements, because a diagonal move needs
+ * the same side cells either way. On a weighted grid a move costs the same
+ * both ways too, since its cost comes from the costs of both cells.
+ * Then any robot finds its path in time proportional to its length,
+ * following the directions, without a search.
+ * The field keeps only a float and a byte for every cell, and it is only
+ * read after compute(), so any number of threads may use it at once.
+ */
+public final class FlowField {
+
+    static final float INFINITY = SearchSpace.INFINITY;
+
+    // the directions, in the same order as the successors of GridSearch:
+    // up, up-right, right, down-right, down, down-left, left, up-left
+    public static final byte NONE = -1; // the target, an obstacle or a cell that cannot reach it
+    private static final int[] DIR_ROW = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] DIR_COL = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    private final Grid grid;
+    private final int rows, columns;
+    private final boolean diagonal; // diagonal movements allowed?
+
+    private final float[] distance; // the distance of every cell to the target
+    private final byte[] direction; // the first move toward the target, or NONE
+    private int target = -1;        // the target of the field, -1 before compute()
+
+    private final IndexedMinHeap queue;
+
+    public FlowField(Grid grid, boolean diagonal) {
+        this.grid = grid;
+        this.rows = grid.rows();
+        this.columns = grid.columns();
+        this.diagonal = diagonal;
+        distance = new float[grid.size()];
+        direction = new byte[grid.size()];
+        queue = new IndexedMinHeap(grid.size());
+    }
+
+    /**
+     * Computes the distances and the directions toward the target
+     */
+    public void compute(int target) {
+        this.target = target;
+        Arrays.fill(distance, INFINITY);
+        Arrays.fill(direction, NONE);
+        queue.clear();
+        distance[target] = 0;
+        queue.insert(target, 0);
+        boolean weighted = grid.isWeighted();
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            float d = distance[u];
+            int r = u / columns;
+            int c = u - r * columns;
+            for (int k = 0; k < 8; k++) {
+                int nr = r + DIR_ROW[k], nc = c + DIR_COL[k];
+                if (!canMove(r, c, nr, nc))
+                    continue;
+                int v = nr * columns + nc;
+                float move = k % 2 == 0 ? 1 : GridSearch.SQRT2;
+                if (weighted)
+                    move *= (grid.cost(u) + grid.cost(v)) * 0.5f;
+                float alt = d + move;
+                if (alt < distance[v]) {
+                    distance[v] = alt;
+                    // from v, the move toward u is the opposite one
+                    direction[v] = (byte) ((k + 4) & 7);
+                    if (queue.contains(v))
+                        queue.decreaseKey(v, alt);
+                    else
+                        queue.insert(v, alt);
+                }
+            }
+        }
+    } // end compute()
+
+    /**
+     * Returns true if the robot can move from cell (r,c) to the next cell (nr,nc),
+     * with the same rules as the successors of GridSearch
+     */
+    private boolean canMove(int r, int c, int nr, int nc) {
+        if (nr < 0 || nr >= rows || nc < 0 || nc >= columns || grid.isObstacle(nr, nc))
+            return false;
+        if (nr == r || nc == c)
+            return true;
+        // no diagonal move through a "slot" between two obstacles
+        return diagonal && (!grid.isObstacle(r, nc) || !grid.isObstacle(nr, c));
+    }
+
+    public int target() {
+        return target;
+    }
+
+    /**
+     * Returns the distance from the cell to the target, INFINITY if it cannot reach it
+     */
+    public float distance(int id) {
+        return distance[id];
+    }
+
+    /**
+     * Returns the first move from the cell toward the target,
+     * from 0 (up) clockwise to 7 (up-left), or NONE
+     */
+    public byte direction(int id) {
+        return direction[id];
+    }
+
+    /**
+     * Returns the next cell on the way from the cell to the target, or -1 if there is none
+     */
+    public int next(int id) {
+        byte k = direction[id];
+        if (k == NONE)
+            return -1;
+        return id + DIR_ROW[k] * columns + DIR_COL[k];
+    }
+
+    /**
+     * Returns the cells of the path from cell 'from' to the target,
+     * or an empty array if the target cannot be reached.
+     */
+    public int[] path(int from) {
+        if (target == -1 || distance[from] == INFINITY)
+            return new int[0];
+        int steps = 0;
+        for (int cur = from; cur != target; cur = next(cur))
+            steps++;
+        int[] path = new int[steps + 1];
+        int i = 0;
+        for (int cur = from; cur != target; cur = next(cur))
+            path[i++] = cur;
+        path[i] = target;
+        return path;
+    } // end path()
+
+} // end class FlowField
@@ -0,0 +1,18 @@
+package com.company.search;
+
+/**
+ * The Greedy search algorithm: f(Sj) = h(Sj), the states are
+ * chosen only by their estimated distance to the target.
+ */
+public final class GreedySearch extends BestFirstSearch {
+
+    public GreedySearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+    }
+
+    @Override
+    float g(float g, float cost) {
+        return 0;
+    }
+
+} // end class GreedySearch
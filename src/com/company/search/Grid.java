@@ -0,0 +1,259 @@
+package com.company.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The obstacle map on which the searches are performed.
+ * Each cell is addressed by its index, id = row * columns + col,
+ * so that row 0 is the top and column 0 is the left.
+ *
+ * The obstacles are kept one bit per cell: bit (id & 7) of byte (id >>> 3).
+ * The bits are in a ByteBuffer, on the heap for a new grid,
+ * or mapped from a file by GridFile, so a grid can be searched
+ * without copying its obstacles to the heap.
+ *
+ * Every free cell also has a traversal cost, an integer from 1 to
+ * MAX_COST, 1 unless it is set: a move between two cells costs its
+ * length times the mean of their costs, the same in both directions.
+ * The costs take one byte per cell, on the heap, and only once a cost
+ * other than 1 is set; GridFile does not save them.
+ *
+ * Once components() has been called, the grid also keeps its
+ * connected components up to date while its obstacles change.
+ *
+ * Every change of an obstacle or of a cost is a new revision of the grid.
+ * Once a PathCache uses the grid, it also remembers which cell changed
+ * in each of the last CHANGES revisions.
+ */
+public final class Grid {
+
+    public static final int MAX_COST = 255; // the highest cost of a cell
+
+    static final int CHANGES = 1024; // the number of changes that are remembered
+
+    private final int rows;         // the number of rows of the grid
+    private final int columns;      // the number of columns of the grid
+    private final int size;         // the number of cells of the grid
+    private final ByteBuffer bits;  // one bit for every cell, set for an obstacle
+    private byte[] costs;           // the cost of every cell, unsigned, null while all are 1
+
+    ConnectedComponents components; // null until they are asked for
+
+    private long revision;   // the number of changes of the obstacles and of the costs
+    // the cell of each of the last changes, as id * 2, plus 1 if the change made
+    // the moves cheaper, or -1 for a change of the whole grid; null until asked for
+    private long[] changes;
+    private long firstChange; // the first revision whose change is remembered
+
+    public Grid(int rows, int columns) {
+        this(rows, columns, null);
+    }
+
+    /**
+     * Creates a grid on the given bits, or on new ones if 'bits' is null
+     */
+    Grid(int rows, int columns, ByteBuffer bits) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid grid dimensions: " + rows + "x" + columns);
+        this.rows = rows;
+        this.columns = columns;
+        this.size = rows * columns;
+        this.bits = bits != null ? bits : ByteBuffer.allocate(bytes(size));
+    }
+
+    /**
+     * Returns the number of bytes of the bits of a grid with the given number of cells
+     */
+    static int bytes(int size) {
+        return (int) ((size + 7L) >>> 3);
+    }
+
+    /**
+     * Returns the bits of the obstacles, from the first to the last byte.
+     * The buffer is a view: it shares the bits, but not the position and limit.
+     */
+    ByteBuffer bits() {
+        return bits.duplicate().clear();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of cells of the grid
+     */
+    public int size() {
+        return size;
+    }
+
+    public int id(int row, int col) {
+        return row * columns + col;
+    }
+
+    public int row(int id) {
+        return id / columns;
+    }
+
+    public int col(int id) {
+        return id % columns;
+    }
+
+    public boolean isObstacle(int id) {
+        if (id >= size)
+            throw new IndexOutOfBoundsException(id);
+        return (bits.get(id >>> 3) & (1 << (id & 7))) != 0;
+    }
+
+    public boolean isObstacle(int row, int col) {
+        return isObstacle(row * columns + col);
+    }
+
+    /**
+     * Puts or removes an obstacle.
+     * A grid mapped read-only from a file throws ReadOnlyBufferException.
+     */
+    public void setObstacle(int id, boolean obstacle) {
+        if (id >= size)
+            throw new IndexOutOfBoundsException(id);
+        int i = id >>> 3;
+        int b = bits.get(i);
+        int changed = obstacle ? b | (1 << (id & 7)) : b & ~(1 << (id & 7));
+        if (changed == b)
+            return;
+        bits.put(i, (byte) changed);
+        changed(id, !obstacle);
+        if (components != null)
+            components.obstacleChanged(id, obstacle);
+    }
+
+    public void setObstacle(int row, int col, boolean obstacle) {
+        setObstacle(row * columns + col, obstacle);
+    }
+
+    /**
+     * Returns true if a cell has a cost other than 1
+     */
+    public boolean isWeighted() {
+        return costs != null;
+    }
+
+    /**
+     * Returns the cost of moving through the cell, from 1 to MAX_COST
+     */
+    public int cost(int id) {
+        if (costs == null) {
+            if (id >= size)
+                throw new IndexOutOfBoundsException(id);
+            return 1;
+        }
+        return costs[id] & 0xFF;
+    }
+
+    public int cost(int row, int col) {
+        return cost(row * columns + col);
+    }
+
+    /**
+     * Sets the cost of moving through the cell, from 1 to MAX_COST.
+     * The searches already running are not told about it.
+     */
+    public void setCost(int id, int cost) {
+        if (cost < 1 || cost > MAX_COST)
+            throw new IllegalArgumentException("Invalid cost: " + cost);
+        if (id >= size)
+            throw new IndexOutOfBoundsException(id);
+        if (costs == null) {
+            if (cost == 1)
+                return;
+            costs = new byte[size];
+            Arrays.fill(costs, (byte) 1);
+        }
+        int old = costs[id] & 0xFF;
+        if (cost == old)
+            return;
+        costs[id] = (byte) cost;
+        changed(id, cost < old);
+    }
+
+    public void setCost(int row, int col, int cost) {
+        setCost(row * columns + col, cost);
+    }
+
+    /**
+     * Sets the cost of every cell back to 1
+     */
+    public void clearCosts() {
+        costs = null;
+        changed(-1, true);
+    }
+
+    /**
+     * Removes every obstacle of the grid
+     */
+    public void clear() {
+        for (int i = bits.capacity() - 1; i >= 0; i--)
+            bits.put(i, (byte) 0);
+        changed(-1, true);
+        if (components != null)
+            components.build();
+    }
+
+    /**
+     * Returns the revision of the grid, which every change
+     * of an obstacle or of a cost increases by one
+     */
+    public long revision() {
+        return revision;
+    }
+
+    /**
+     * Records the change of cell 'id', or of the whole grid if it is -1,
+     * as the next revision
+     */
+    private void changed(int id, boolean cheaper) {
+        revision++;
+        if (changes != null)
+            changes[(int) revision & (CHANGES - 1)] = (long) id << 1 | (cheaper ? 1 : 0);
+    }
+
+    /**
+     * Starts remembering the cells of the changes, from the next revision on
+     */
+    void keepChanges() {
+        if (changes == null) {
+            changes = new long[CHANGES];
+            firstChange = revision + 1;
+        }
+    }
+
+    /**
+     * Returns the change of the given revision: the cell * 2, plus 1
+     * if the change made the moves cheaper, or -1 if the whole grid
+     * changed or the change is no longer remembered
+     */
+    long change(long revision) {
+        if (changes == null || revision < firstChange || revision <= this.revision - CHANGES)
+            return -1;
+        return changes[(int) revision & (CHANGES - 1)];
+    }
+
+    /**
+     * Returns the connected components of the grid, labeling them
+     * the first time. From then on the searches end at once when
+     * the target is in another component than the robot.
+     * The components are not told about changes made to the file
+     * of a mapped grid by other processes.
+     */
+    public ConnectedComponents components() {
+        if (components == null)
+            components = new ConnectedComponents(this);
+        return components;
+    }
+
+} // end class Grid
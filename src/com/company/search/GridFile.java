@@ -0,0 +1,173 @@
+package com.company.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves grids to files and opens them again, mapped in memory.
+ *
+ * A file has a header of four big-endian ints, the magic number, the version,
+ * the rows and the columns, followed by the obstacles one bit per cell,
+ * in the same order as in Grid. A grid that is opened reads its obstacles
+ * straight from the pages of the file: opening costs almost nothing,
+ * only the pages the search touches are read, and the processes that open
+ * the same file share its pages.
+ *
+ * A grid too large for the heap can be written one row at a time by a Writer.
+ */
+public final class GridFile {
+
+    private static final int MAGIC = 0x47524944; // "GRID"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;        // the bytes of the header
+
+    private GridFile() {
+    }
+
+    /**
+     * Writes the grid to the file, replacing it if it exists
+     */
+    public static void save(Grid grid, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = header(grid.rows(), grid.columns());
+            ByteBuffer bits = grid.bits();
+            while (header.hasRemaining() || bits.hasRemaining())
+                channel.write(new ByteBuffer[] {header, bits});
+        }
+    } // end save()
+
+    /**
+     * Returns the header of a file, ready to be written
+     */
+    private static ByteBuffer header(int rows, int columns) {
+        return ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns).flip();
+    }
+
+    /**
+     * Creates the file of a grid with the given dimensions, whose rows
+     * are then written one after the other, from the top, by the Writer
+     */
+    public static Writer writer(Path file, int rows, int columns) throws IOException {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid grid dimensions: " + rows + "x" + columns);
+        return new Writer(file, rows, columns);
+    }
+
+    /**
+     * Writes a grid file row by row, keeping in memory only a small buffer
+     */
+    public static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final int rows, columns;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private int written;   // the number of rows written
+        private int current;   // the byte of the bits not written yet
+        private long cell;     // the index of the next cell
+
+        private Writer(Path file, int rows, int columns) throws IOException {
+            this.rows = rows;
+            this.columns = columns;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            buffer.put(header(rows, columns));
+        }
+
+        /**
+         * Writes the next row, true for every obstacle
+         */
+        public void writeRow(boolean[] obstacles) throws IOException {
+            if (obstacles.length != columns)
+                throw new IllegalArgumentException("Row of " + obstacles.length + " cells in a grid of " + columns + " columns");
+            if (written == rows)
+                throw new IllegalStateException("All the " + rows + " rows have been written");
+            for (boolean obstacle : obstacles) {
+                int bit = (int) (cell++ & 7);
+                if (obstacle)
+                    current |= 1 << bit;
+                if (bit == 7)
+                    put();
+            }
+            written++;
+        } // end writeRow()
+
+        /**
+         * Adds the current byte to the buffer, writing the buffer to the file if it is full
+         */
+        private void put() throws IOException {
+            if (!buffer.hasRemaining())
+                flush();
+            buffer.put((byte) current);
+            current = 0;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Writes what is left and closes the file.
+         * The file is complete only if all the rows have been written.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (written == rows) {
+                    if ((cell & 7) != 0)
+                        put();
+                    flush();
+                }
+            } finally {
+                channel.close();
+            }
+            if (written != rows)
+                throw new IOException("Only " + written + " of " + rows + " rows have been written");
+        } // end close()
+
+    } // end class Writer
+
+    /**
+     * Opens a grid that can only be read. Its obstacles cannot be changed.
+     */
+    public static Grid open(Path file) throws IOException {
+        return open(file, false);
+    }
+
+    /**
+     * Opens a grid. If it is writable, the obstacles that are changed
+     * are written to the file, and seen by the other processes that map it.
+     */
+    public static Grid open(Path file, boolean writable) throws IOException {
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        try (FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER)
+                throw new IOException("Not a grid file: " + file);
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(mode, 0, length);
+            if (buffer.getInt(0) != MAGIC)
+                throw new IOException("Not a grid file: " + file);
+            if (buffer.getInt(4) != VERSION)
+                throw new IOException("Unsupported grid file version " + buffer.getInt(4) + ": " + file);
+            int rows = buffer.getInt(8);
+            int columns = buffer.getInt(12);
+            if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE
+                    || length != HEADER + Grid.bytes(rows * columns))
+                throw new IOException("Corrupt grid file: " + file);
+            ByteBuffer bits = buffer.position(HEADER).slice();
+            return new Grid(rows, columns, bits);
+        }
+    } // end open()
+
+} // end class GridFile
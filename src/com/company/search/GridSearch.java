@@ -0,0 +1,490 @@
+package com.company.search;
+
+import java.util.Arrays;
+
+/**
+ * Base class of the search algorithms.
+ *
+ * A search is created once for a grid and a movement mode
+ * and can then answer any number of queries, either all at once
+ * with search() or one expansion at a time with reset() and step().
+ * The search never touches anything but the grid, so it can run
+ * without any display.
+ */
+public abstract class GridSearch {
+
+    // The state of a cell during the search
+    public static final byte
+            UNSEEN = 0, // cell not yet generated
+            OPEN   = 1, // cell that belongs to the frontier (OPEN SET)
+            CLOSED = 2; // cell that belongs to the CLOSED SET
+
+    // The status of the search
+    public static final int
+            RUNNING = 0, // the search is in progress
+            FOUND   = 1, // the target has been found
+            NO_PATH = 2; // there is no path to the target
+
+    static final float SQRT2 = (float) Math.sqrt(2);
+
+    // the number of targets above which the heuristic measures the distance
+    // to the rectangle around them instead of the distance to each one
+    static final int NEAREST_TARGETS = 16;
+
+    protected final Grid grid;
+    protected final int rows, columns;
+    protected final boolean diagonal; // diagonal movements allowed?
+
+    protected int start;    // the initial position of the robot
+    protected int target;   // the position of the target, or the first of the targets
+    private int reached;    // the target where the search ended
+
+    // the starts and the targets of a search with many of them, sorted,
+    // or null for a search with one start and one target
+    private int[] starts, targets;
+
+    // the rectangle around the targets, for the heuristic when they are many
+    private int top, bottom, leftmost, rightmost;
+    protected int expanded; // the number of nodes that have been expanded
+    protected int status = NO_PATH;
+    private long generated; // the number of successors that have been created
+
+    // where search() records, or null, and the operations
+    // of the priority queues before the search
+    private SearchMetrics metrics;
+    private long operations;
+
+    // the state, the predecessor and the distance of every cell
+    final SearchSpace space;
+
+    protected SearchListener listener;
+
+    // the successors of the expanded cell and the cost to reach each one,
+    // filled by successors()
+    protected final int[] succ = new int[8];
+    protected final float[] succCost = new float[8];
+
+    protected GridSearch(Grid grid, boolean diagonal) {
+        this.grid = grid;
+        this.rows = grid.rows();
+        this.columns = grid.columns();
+        this.diagonal = diagonal;
+        this.space = new SearchSpace(grid.size());
+    }
+
+    public Grid grid() {
+        return grid;
+    }
+
+    public boolean isDiagonal() {
+        return diagonal;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public int expanded() {
+        return expanded;
+    }
+
+    /**
+     * Returns the number of successors created by the last search
+     */
+    public long generated() {
+        return generated;
+    }
+
+    /**
+     * Makes every search() record into the given metrics, or into none if null
+     */
+    public void setMetrics(SearchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Prepares a new search from cell 'start' to cell 'target'.
+     */
+    public final void reset(int start, int target) {
+        starts = targets = null;
+        begin(start, target);
+    }
+
+    /**
+     * Prepares a new search from the nearest of the cells 'starts'
+     * to the nearest of the cells 'targets': the search grows from all
+     * the starts at once and ends at the first target it reaches.
+     * The path of the result begins with the start it comes from.
+     *
+     * @throws UnsupportedOperationException if the algorithm searches
+     *         from one start to one target only
+     */
+    public final void reset(int[] starts, int[] targets) {
+        if (!supportsMany())
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " needs one start and one target");
+        if (starts.length == 0 || targets.length == 0)
+            throw new IllegalArgumentException("No starts or no targets");
+        this.starts = distinct(starts);
+        this.targets = distinct(targets);
+        top = leftmost = Integer.MAX_VALUE;
+        bottom = rightmost = Integer.MIN_VALUE;
+        for (int t : this.targets) {
+            top = Math.min(top, t / columns);
+            bottom = Math.max(bottom, t / columns);
+            leftmost = Math.min(leftmost, t % columns);
+            rightmost = Math.max(rightmost, t % columns);
+        }
+        begin(this.starts[0], this.targets[0]);
+    }
+
+    /**
+     * Returns the cells sorted, each one once
+     */
+    private static int[] distinct(int[] cells) {
+        int[] sorted = cells.clone();
+        Arrays.sort(sorted);
+        int n = 1;
+        for (int i = 1; i < sorted.length; i++)
+            if (sorted[i] != sorted[n - 1])
+                sorted[n++] = sorted[i];
+        return Arrays.copyOf(sorted, n);
+    }
+
+    private void begin(int start, int target) {
+        this.start = start;
+        this.target = target;
+        reached = target;
+        expanded = 0;
+        generated = 0;
+        operations = queueOperations();
+        status = RUNNING;
+        space.clear();
+        // When the grid knows its components, a target that
+        // cannot be reached ends the search at once.
+        boolean reachable = reachable();
+        if (reachable || isIncremental())
+            init();
+        if (!reachable)
+            status = NO_PATH;
+    }
+
+    /**
+     * Returns false if the grid keeps its connected components
+     * and the start and the target are in different ones
+     */
+    protected final boolean reachable() {
+        ConnectedComponents components = grid.components;
+        if (components == null || starts == null)
+            return components == null || components.connected(start, target);
+        for (int s : starts)
+            for (int t : targets)
+                if (components.connected(s, t))
+                    return true;
+        return false;
+    }
+
+    /**
+     * Returns true if the algorithm can search from many starts to many targets
+     */
+    protected boolean supportsMany() {
+        return false;
+    }
+
+    /**
+     * Returns the cells where the search starts: the start, or all the starts
+     */
+    protected final int[] starts() {
+        return starts != null ? starts : new int[] {start};
+    }
+
+    /**
+     * Returns true if the cell is the target, or one of the targets
+     */
+    protected final boolean isTarget(int id) {
+        return targets == null ? id == target : Arrays.binarySearch(targets, id) >= 0;
+    }
+
+    /**
+     * Ends the search at the target 'id', where the path of the result ends
+     */
+    protected final void found(int id) {
+        reached = id;
+        status = FOUND;
+    }
+
+    /**
+     * Returns true if the search has more than one target
+     */
+    protected final boolean manyTargets() {
+        return targets != null && targets.length > 1;
+    }
+
+    private boolean isStart(int id) {
+        return starts == null ? id == start : Arrays.binarySearch(starts, id) >= 0;
+    }
+
+    /**
+     * Counts successors created without successors(), such as jump points
+     */
+    protected final void generated(int n) {
+        generated += n;
+    }
+
+    /**
+     * Returns the number of operations on the priority queues of the
+     * algorithm since it was created, 0 if it has none
+     */
+    protected long queueOperations() {
+        return 0;
+    }
+
+    /**
+     * Returns true if the search is repaired after the grid changes,
+     * so it must be initialized even when the target cannot be reached yet
+     */
+    protected boolean isIncremental() {
+        return false;
+    }
+
+    /**
+     * Expands one node.
+     *
+     * @return true if the search has not come to an end yet
+     */
+    public final boolean step() {
+        if (status == RUNNING)
+            expand();
+        return status == RUNNING;
+    }
+
+    /**
+     * Performs a whole search from cell 'start' to cell 'target'.
+     */
+    public final SearchResult search(int start, int target) {
+        long begin = metrics != null ? System.nanoTime() : 0;
+        reset(start, target);
+        return finish(begin);
+    }
+
+    /**
+     * Performs a whole search from the nearest of the starts
+     * to the nearest of the targets.
+     */
+    public final SearchResult search(int[] starts, int[] targets) {
+        long begin = metrics != null ? System.nanoTime() : 0;
+        reset(starts, targets);
+        return finish(begin);
+    }
+
+    /**
+     * Runs the search to its end and records it in the metrics, if any.
+     * The counts are taken before result(), so that the work of building
+     * the path is not counted as search.
+     */
+    private SearchResult finish(long begin) {
+        while (step());
+        long generated = this.generated;
+        long operations = queueOperations() - this.operations;
+        SearchResult result = result();
+        if (metrics != null) {
+            long end = System.nanoTime();
+            metrics.record(result.found(), expanded, generated, operations,
+                    result.steps(), end - begin, end);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the outcome of the last search
+     */
+    public SearchResult result() {
+        int[] path = path();
+        double distance = 0;
+        for (int i = 1; i < path.length; i++)
+            distance += moveCost(path[i - 1], path[i]);
+        return new SearchResult(status == FOUND, path, expanded, distance);
+    }
+
+    /**
+     * Returns the cells of the path from the start to the target,
+     * or an empty array if the target has not been found.
+     */
+    public int[] path() {
+        if (status != FOUND)
+            return new int[0];
+        int steps = 0;
+        for (int cur = reached; !isStart(cur); cur = parent(cur))
+            steps++;
+        int[] path = new int[steps + 1];
+        for (int cur = reached, i = steps; i >= 0; cur = parent(cur), i--)
+            path[i] = cur;
+        return path;
+    }
+
+    /**
+     * Returns the state of the cell: UNSEEN, OPEN or CLOSED
+     */
+    public byte state(int id) {
+        return space.state(id);
+    }
+
+    /**
+     * Returns the predecessor of the cell, or -1 if it has none
+     */
+    public int parent(int id) {
+        return space.parent(id);
+    }
+
+    /**
+     * The first step of the algorithm
+     */
+    protected abstract void init();
+
+    /**
+     * Expands a node and creates his successors
+     */
+    protected abstract void expand();
+
+    /**
+     * Changes the state of a cell and notifies the listener
+     */
+    protected final void mark(int id, byte state) {
+        space.setState(id, state);
+        if (listener != null)
+            listener.cellChanged(id, state);
+    }
+
+    /**
+     * Puts in 'succ' the free cells next to the cell 'id' and in 'succCost'
+     * the cost to move to each one of them, and counts them as generated.
+     *
+     * @param id the cell whose successors are created
+     * @return   the number of successors
+     */
+    protected final int successors(int id) {
+        int n = neighbors(id, succ, succCost);
+        generated += n;
+        return n;
+    }
+
+    /**
+     * Puts in 'cells' the free cells next to the cell 'id' and in 'costs'
+     * the cost to move to each one of them, without counting them.
+     * The successors are created in the order: up, up-right, right, down-right,
+     * down, down-left, left, up-left. A diagonal move is not allowed when both
+     * of the side cells are obstacles, because it is not reasonable to allow
+     * the robot to pass through a "slot". On a weighted grid the length
+     * of every move is multiplied by the mean cost of its two cells.
+     *
+     * @param id the cell whose neighbors are found
+     * @return   the number of neighbors
+     */
+    protected final int neighbors(int id, int[] cells, float[] costs) {
+        int r = id / columns;
+        int c = id - r * columns;
+        boolean up    = r > 0 && !grid.isObstacle(id - columns);
+        boolean right = c < columns - 1 && !grid.isObstacle(id + 1);
+        boolean down  = r < rows - 1 && !grid.isObstacle(id + columns);
+        boolean left  = c > 0 && !grid.isObstacle(id - 1);
+        int n = 0;
+        if (up) {
+            cells[n] = id - columns;
+            costs[n++] = 1;
+        }
+        if (diagonal && r > 0 && c < columns - 1 && (up || right) && !grid.isObstacle(id - columns + 1)) {
+            cells[n] = id - columns + 1;
+            costs[n++] = SQRT2;
+        }
+        if (right) {
+            cells[n] = id + 1;
+            costs[n++] = 1;
+        }
+        if (diagonal && r < rows - 1 && c < columns - 1 && (down || right) && !grid.isObstacle(id + columns + 1)) {
+            cells[n] = id + columns + 1;
+            costs[n++] = SQRT2;
+        }
+        if (down) {
+            cells[n] = id + columns;
+            costs[n++] = 1;
+        }
+        if (diagonal && r < rows - 1 && c > 0 && (down || left) && !grid.isObstacle(id + columns - 1)) {
+            cells[n] = id + columns - 1;
+            costs[n++] = SQRT2;
+        }
+        if (left) {
+            cells[n] = id - 1;
+            costs[n++] = 1;
+        }
+        if (diagonal && r > 0 && c > 0 && (up || left) && !grid.isObstacle(id - columns - 1)) {
+            cells[n] = id - columns - 1;
+            costs[n++] = SQRT2;
+        }
+        if (grid.isWeighted()) {
+            int w = grid.cost(id);
+            for (int i = 0; i < n; i++)
+                costs[i] *= (w + grid.cost(cells[i])) * 0.5f;
+        }
+        return n;
+    } // end neighbors()
+
+    /**
+     * Returns the estimated distance from the cell to the target:
+     * the Euclidean distance with diagonal movements,
+     * the Manhattan distance without them.
+     * No cell costs less than 1, so it is also a lower bound on a weighted grid.
+     * With many targets, it is the distance to the nearest one, which costs
+     * time in their number for every node. With more than NEAREST_TARGETS
+     * it is the distance to the rectangle around them instead: a weaker
+     * bound, since every target lies in the rectangle, but found in O(1).
+     */
+    protected final float heuristic(int id) {
+        if (targets == null)
+            return heuristic(id % columns - target % columns, id / columns - target / columns);
+        if (targets.length > NEAREST_TARGETS) {
+            int r = id / columns;
+            int c = id - r * columns;
+            return heuristic(Math.max(0, Math.max(leftmost - c, c - rightmost)),
+                    Math.max(0, Math.max(top - r, r - bottom)));
+        }
+        float h = Float.POSITIVE_INFINITY;
+        for (int t : targets)
+            h = Math.min(h, heuristic(id % columns - t % columns, id / columns - t / columns));
+        return h;
+    }
+
+    /**
+     * Returns the estimated length of a move of dx columns and dy rows
+     */
+    private float heuristic(int dx, int dy) {
+        if (diagonal)
+            return (float) Math.sqrt(dx * dx + dy * dy);
+        return Math.abs(dx) + Math.abs(dy);
+    }
+
+    /**
+     * Returns the cost of the move between two neighboring cells:
+     * its length, times the mean cost of the cells on a weighted grid
+     */
+    protected final double moveCost(int u, int v) {
+        double length = distBetween(u, v);
+        if (!grid.isWeighted())
+            return length;
+        return length * (grid.cost(u) + grid.cost(v)) * 0.5;
+    }
+
+    /**
+     * Returns the distance between two cells
+     */
+    protected final double distBetween(int u, int v) {
+        int dx = u % columns - v % columns;
+        int dy = u / columns - v / columns;
+        if (diagonal)
+            return Math.sqrt(dx * dx + dy * dy);
+        return Math.abs(dx) + Math.abs(dy);
+    }
+
+} // end class GridSearch
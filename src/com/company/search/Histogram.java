@@ -0,0 +1,175 @@
+package com.company.search;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values that any number of threads can
+ * record at once, without locks and without allocating.
+ *
+ * The buckets are log-linear, like those of an HDR histogram: the values
+ * below 2 * SUB have a bucket each, and every larger power of two is
+ * divided in SUB buckets of the same width, so a percentile is never off
+ * by more than 1/SUB of its value, from 0 up to Long.MAX_VALUE,
+ * with less than a thousand counters.
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS; // the buckets of every power of two
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Adds a value to the histogram; negative values count as 0
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        long m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value));
+    }
+
+    /**
+     * Returns the bucket of a value
+     */
+    private static int bucket(long value) {
+        if (value < SUB)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - SUB_BITS + 1) * SUB + (int) (value >>> (exponent - SUB_BITS) & (SUB - 1));
+    }
+
+    /**
+     * Returns the largest value of a bucket
+     */
+    private static long highest(int bucket) {
+        if (bucket < 2 * SUB)
+            return bucket;
+        int shift = bucket / SUB - 1;
+        return ((long) (SUB + bucket % SUB) << shift) + (1L << shift) - 1;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the value below or at which the given fraction of the values lie,
+     * 0 if there are none
+     *
+     * @param fraction from 0 to 1
+     */
+    public long percentile(double fraction) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            total += counts.get(i);
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(highest(i), max.get());
+        }
+        return max.get();
+    } // end percentile()
+
+    /**
+     * Removes all the values. The values recorded at the same time
+     * by other threads may be removed only in part.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Returns the count, the mean, some percentiles and the maximum
+     */
+    public Summary summary() {
+        return new Summary(count(), mean(), percentile(0.5), percentile(0.9),
+                percentile(0.99), percentile(0.999), max());
+    }
+
+    /**
+     * The main figures of a histogram at one time,
+     * which JMX shows as a composite value
+     */
+    public static final class Summary {
+
+        private final long count;
+        private final double mean;
+        private final long p50, p90, p99, p999;
+        private final long max;
+
+        @ConstructorProperties({"count", "mean", "p50", "p90", "p99", "p999", "max"})
+        public Summary(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count %d, mean %.1f, p50 %d, p90 %d, p99 %d, p99.9 %d, max %d",
+                    count, mean, p50, p90, p99, p999, max);
+        }
+
+    } // end class Summary
+
+} // end class Histogram
@@ -0,0 +1,154 @@
+package com.company.search;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of cells ordered by a key.
+ * The position of every cell in the heap is kept in an index,
+ * so a cell can be found, have its key decreased or be removed
+ * in O(log n) time without scanning the heap.
+ */
+final class IndexedMinHeap {
+
+    private final int[] heap;     // the cells, heap[0] has the smallest key
+    private final int[] position; // the position of each cell in the heap, -1 if absent
+    private final float[] key;    // the key of each cell in the heap
+    private int size;             // the number of cells in the heap
+    private long operations;      // the insertions, decreases and removals so far
+
+    /**
+     * @param capacity the number of cells of the grid
+     */
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new float[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of insertions, decreases and removals since the heap was created
+     */
+    long operations() {
+        return operations;
+    }
+
+    boolean contains(int id) {
+        return position[id] != -1;
+    }
+
+    float key(int id) {
+        return key[id];
+    }
+
+    /**
+     * Returns the cell with the smallest key without removing it
+     */
+    int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Adds a cell that is not in the heap
+     */
+    void insert(int id, float k) {
+        operations++;
+        key[id] = k;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Gives a smaller key to a cell that is already in the heap
+     */
+    void decreaseKey(int id, float k) {
+        operations++;
+        key[id] = k;
+        siftUp(position[id]);
+    }
+
+    /**
+     * Removes and returns the cell with the smallest key
+     */
+    int poll() {
+        int id = heap[0];
+        removeAt(0);
+        return id;
+    }
+
+    /**
+     * Removes a cell that is in the heap
+     */
+    void remove(int id) {
+        removeAt(position[id]);
+    }
+
+    /**
+     * Removes all the cells, in time proportional to their number
+     */
+    void clear() {
+        for (int i = 0; i < size; i++)
+            position[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void removeAt(int i) {
+        operations++;
+        position[heap[i]] = -1;
+        size--;
+        if (i == size)
+            return;
+        int last = heap[size];
+        heap[i] = last;
+        position[last] = i;
+        siftDown(i);
+        if (heap[i] == last)
+            siftUp(i);
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        float k = key[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (key[p] <= k)
+                break;
+            heap[i] = p;
+            position[p] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        float k = key[id];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && key[heap[right]] < key[heap[child]])
+                child = right;
+            int ch = heap[child];
+            if (k <= key[ch])
+                break;
+            heap[i] = ch;
+            position[ch] = i;
+            i = child;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+} // end class IndexedMinHeap
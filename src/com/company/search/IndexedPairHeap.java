@@ -0,0 +1,154 @@
+package com.company.search;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of cells ordered by a pair of keys:
+ * by the first key, and by the second one when the first keys are equal.
+ * Like IndexedMinHeap, it keeps the position of every cell, so the keys
+ * of a cell can be changed in either direction in O(log n) time.
+ */
+final class IndexedPairHeap {
+
+    private final int[] heap;     // the cells, heap[0] has the smallest keys
+    private final int[] position; // the position of each cell in the heap, -1 if absent
+    private final float[] key1;   // the first key of each cell in the heap
+    private final float[] key2;   // the second key of each cell in the heap
+    private int size;             // the number of cells in the heap
+    private long operations;      // the insertions, updates and removals so far
+
+    /**
+     * @param capacity the number of cells of the grid
+     */
+    IndexedPairHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key1 = new float[capacity];
+        key2 = new float[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int id) {
+        return position[id] != -1;
+    }
+
+    /**
+     * Returns the number of insertions, updates and removals since the heap was created
+     */
+    long operations() {
+        return operations;
+    }
+
+    float key1(int id) {
+        return key1[id];
+    }
+
+    float key2(int id) {
+        return key2[id];
+    }
+
+    /**
+     * Returns the cell with the smallest keys without removing it
+     */
+    int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Adds a cell that is not in the heap
+     */
+    void insert(int id, float k1, float k2) {
+        operations++;
+        key1[id] = k1;
+        key2[id] = k2;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Gives new keys, smaller or larger, to a cell that is already in the heap
+     */
+    void update(int id, float k1, float k2) {
+        operations++;
+        key1[id] = k1;
+        key2[id] = k2;
+        int i = position[id];
+        siftUp(i);
+        if (heap[i] == id)
+            siftDown(i);
+    }
+
+    /**
+     * Removes a cell that is in the heap
+     */
+    void remove(int id) {
+        operations++;
+        int i = position[id];
+        position[id] = -1;
+        size--;
+        if (i == size)
+            return;
+        int last = heap[size];
+        heap[i] = last;
+        position[last] = i;
+        siftDown(i);
+        if (heap[i] == last)
+            siftUp(i);
+    }
+
+    /**
+     * Removes all the cells, in time proportional to their number
+     */
+    void clear() {
+        for (int i = 0; i < size; i++)
+            position[heap[i]] = -1;
+        size = 0;
+    }
+
+    /**
+     * Returns true if the keys of cell 'a' come before those of cell 'b'
+     */
+    private boolean less(int a, int b) {
+        return key1[a] < key1[b] || (key1[a] == key1[b] && key2[a] < key2[b]);
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (!less(id, p))
+                break;
+            heap[i] = p;
+            position[p] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child]))
+                child = right;
+            int ch = heap[child];
+            if (!less(ch, id))
+                break;
+            heap[i] = ch;
+            position[ch] = i;
+            i = child;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+} // end class IndexedPairHeap
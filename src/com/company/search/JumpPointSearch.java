@@ -0,0 +1,281 @@
+package com.company.search;
+
+/**
+ * Jump Point Search: A* on a uniform-cost grid that does not put in the
+ * OPEN SET the cells of straight and diagonal runs, but "jumps" over them
+ * up to the next cell where the path may have to turn (a jump point).
+ *
+ * It follows the same movement rules as the other algorithms: a diagonal
+ * move is not allowed when both of the side cells are obstacles.
+ * The paths it returns are optimal and contain every cell, like those
+ * of A*, while only the jump points are expanded, and only the jump
+ * points put in the OPEN SET count as generated.
+ * The jumps need every move of a run to cost the same,
+ * so it does not search weighted grids.
+ */
+public final class JumpPointSearch extends GridSearch {
+
+    // the OPEN SET, ordered by 'f'
+    private final IndexedMinHeap openSet;
+
+    public JumpPointSearch(Grid grid, boolean diagonal) {
+        super(grid, diagonal);
+        openSet = new IndexedMinHeap(grid.size());
+    }
+
+    @Override
+    protected void init() {
+        if (grid.isWeighted())
+            throw new UnsupportedOperationException("Jump Point Search needs a grid without costs");
+        openSet.clear();
+        space.setG(start, 0);
+        openSet.insert(start, estimate(start, target));
+        mark(start, OPEN);
+    }
+
+    @Override
+    protected long queueOperations() {
+        return openSet.operations();
+    }
+
+    @Override
+    protected void expand() {
+        if (openSet.isEmpty()) {
+            status = NO_PATH;
+            return;
+        }
+        int current = openSet.poll();
+        mark(current, CLOSED);
+        if (current == target) {
+            status = FOUND;
+            return;
+        }
+        expanded++;
+        int r = current / columns;
+        int c = current - r * columns;
+        // Only the successors that cannot be reached more cheaply
+        // through the predecessor are kept ...
+        int n = prunedNeighbors(current, r, c);
+        float g = space.g(current);
+        for (int i = 0; i < n; i++) {
+            int nr = succ[i] / columns;
+            int nc = succ[i] - nr * columns;
+            // ... and from each one of them we jump in the same direction.
+            int jumpPoint = jump(nr, nc, nr - r, nc - c);
+            if (jumpPoint == -1 || space.state(jumpPoint) == CLOSED)
+                continue;
+            float newG = g + estimate(current, jumpPoint);
+            if (newG < space.g(jumpPoint)) {
+                generated(1);
+                space.setG(jumpPoint, newG);
+                space.setParent(jumpPoint, current);
+                float f = newG + estimate(jumpPoint, target);
+                if (openSet.contains(jumpPoint)) {
+                    openSet.decreaseKey(jumpPoint, f);
+                } else {
+                    openSet.insert(jumpPoint, f);
+                    mark(jumpPoint, OPEN);
+                }
+            }
+        }
+    } // end expand()
+
+    /**
+     * Puts in 'succ' the neighbors of the cell that must be examined,
+     * according to the direction from which the cell was reached.
+     */
+    private int prunedNeighbors(int id, int r, int c) {
+        int prev = space.parent(id);
+        if (prev == -1)
+            return neighbors(id, succ, succCost);
+        int dr = Integer.signum(r - prev / columns);
+        int dc = Integer.signum(c - prev % columns);
+        int n = 0;
+        if (diagonal) {
+            if (dr != 0 && dc != 0) {
+                boolean vertical = free(r + dr, c);
+                boolean horizontal = free(r, c + dc);
+                if (vertical)
+                    succ[n++] = id + dr * columns;
+                if (horizontal)
+                    succ[n++] = id + dc;
+                if ((vertical || horizontal) && free(r + dr, c + dc))
+                    succ[n++] = id + dr * columns + dc;
+                // forced neighbors
+                if (!free(r, c - dc) && vertical && free(r + dr, c - dc))
+                    succ[n++] = id + dr * columns - dc;
+                if (!free(r - dr, c) && horizontal && free(r - dr, c + dc))
+                    succ[n++] = id - dr * columns + dc;
+            } else if (dr == 0) {
+                if (free(r, c + dc)) {
+                    succ[n++] = id + dc;
+                    // forced neighbors
+                    if (!free(r + 1, c) && free(r + 1, c + dc))
+                        succ[n++] = id + columns + dc;
+                    if (!free(r - 1, c) && free(r - 1, c + dc))
+                        succ[n++] = id - columns + dc;
+                }
+            } else {
+                if (free(r + dr, c)) {
+                    succ[n++] = id + dr * columns;
+                    // forced neighbors
+                    if (!free(r, c + 1) && free(r + dr, c + 1))
+                        succ[n++] = id + dr * columns + 1;
+                    if (!free(r, c - 1) && free(r + dr, c - 1))
+                        succ[n++] = id + dr * columns - 1;
+                }
+            }
+        } else {
+            if (dr == 0) {
+                if (free(r - 1, c))
+                    succ[n++] = id - columns;
+                if (free(r + 1, c))
+                    succ[n++] = id + columns;
+                if (free(r, c + dc))
+                    succ[n++] = id + dc;
+            } else {
+                if (free(r, c - 1))
+                    succ[n++] = id - 1;
+                if (free(r, c + 1))
+                    succ[n++] = id + 1;
+                if (free(r + dr, c))
+                    succ[n++] = id + dr * columns;
+            }
+        }
+        return n;
+    } // end prunedNeighbors()
+
+    /**
+     * Moves from cell (r,c) in the direction (dr,dc) until it finds
+     * a jump point: the target or a cell with a forced neighbor.
+     *
+     * @return the jump point, or -1 if an obstacle or the border was met first
+     */
+    private int jump(int r, int c, int dr, int dc) {
+        if (dr == 0 || dc == 0)
+            return diagonal ? jumpStraight(r, c, dr, dc) : jumpOrthogonal(r, c, dr, dc);
+        while (free(r, c)) {
+            int id = r * columns + c;
+            if (id == target)
+                return id;
+            // forced neighbors
+            if ((free(r + dr, c - dc) && !free(r, c - dc)) ||
+                    (free(r - dr, c + dc) && !free(r - dr, c)))
+                return id;
+            // when moving diagonally, we must check for horizontal
+            // and vertical jump points
+            if (jumpStraight(r, c + dc, 0, dc) != -1 || jumpStraight(r + dr, c, dr, 0) != -1)
+                return id;
+            // the robot does not pass through a "slot"
+            if (!free(r + dr, c) && !free(r, c + dc))
+                return -1;
+            r += dr;
+            c += dc;
+        }
+        return -1;
+    } // end jump()
+
+    /**
+     * Horizontal or vertical jump when diagonal movements are allowed
+     */
+    private int jumpStraight(int r, int c, int dr, int dc) {
+        while (free(r, c)) {
+            int id = r * columns + c;
+            if (id == target)
+                return id;
+            if (dr == 0) {
+                if ((free(r + 1, c + dc) && !free(r + 1, c)) ||
+                        (free(r - 1, c + dc) && !free(r - 1, c)))
+                    return id;
+            } else {
+                if ((free(r + dr, c + 1) && !free(r, c + 1)) ||
+                        (free(r + dr, c - 1) && !free(r, c - 1)))
+                    return id;
+            }
+            r += dr;
+            c += dc;
+        }
+        return -1;
+    } // end jumpStraight()
+
+    /**
+     * Horizontal or vertical jump when only orthogonal movements are allowed
+     */
+    private int jumpOrthogonal(int r, int c, int dr, int dc) {
+        while (free(r, c)) {
+            int id = r * columns + c;
+            if (id == target)
+                return id;
+            if (dr == 0) {
+                if ((free(r - 1, c) && !free(r - 1, c - dc)) ||
+                        (free(r + 1, c) && !free(r + 1, c - dc)))
+                    return id;
+            } else {
+                if ((free(r, c - 1) && !free(r - dr, c - 1)) ||
+                        (free(r, c + 1) && !free(r - dr, c + 1)))
+                    return id;
+                // when moving vertically, we must check for horizontal jump points
+                if (jumpOrthogonal(r, c + 1, 0, 1) != -1 || jumpOrthogonal(r, c - 1, 0, -1) != -1)
+                    return id;
+            }
+            r += dr;
+            c += dc;
+        }
+        return -1;
+    } // end jumpOrthogonal()
+
+    /**
+     * Returns true if cell (r,c) is inside the grid and is not an obstacle
+     */
+    private boolean free(int r, int c) {
+        return r >= 0 && r < rows && c >= 0 && c < columns && !grid.isObstacle(r * columns + c);
+    }
+
+    /**
+     * Returns the length of the shortest obstacle-free path between two cells:
+     * the octile distance with diagonal movements,
+     * the Manhattan distance without them.
+     */
+    private float estimate(int u, int v) {
+        int dx = Math.abs(u % columns - v % columns);
+        int dy = Math.abs(u / columns - v / columns);
+        if (!diagonal)
+            return dx + dy;
+        return dx > dy ? dx - dy + SQRT2 * dy : dy - dx + SQRT2 * dx;
+    }
+
+    /**
+     * Returns the cells of the path, including those between the jump points
+     */
+    @Override
+    public int[] path() {
+        int[] jumpPoints = super.path();
+        if (jumpPoints.length == 0)
+            return jumpPoints;
+        int steps = 0;
+        for (int i = 1; i < jumpPoints.length; i++)
+            steps += moves(jumpPoints[i - 1], jumpPoints[i]);
+        int[] path = new int[steps + 1];
+        path[0] = jumpPoints[0];
+        int k = 1;
+        for (int i = 1; i < jumpPoints.length; i++) {
+            int from = jumpPoints[i - 1];
+            int dr = Integer.signum(jumpPoints[i] / columns - from / columns);
+            int dc = Integer.signum(jumpPoints[i] % columns - from % columns);
+            for (int m = moves(from, jumpPoints[i]); m > 0; m--) {
+                from += dr * columns + dc;
+                path[k++] = from;
+            }
+        }
+        return path;
+    } // end path()
+
+    /**
+     * Returns the number of moves along the straight or diagonal
+     * line between two jump points
+     */
+    private int moves(int u, int v) {
+        return Math.max(Math.abs(u % columns - v % columns), Math.abs(u / columns - v / columns));
+    }
+
+} // end class JumpPointSearch
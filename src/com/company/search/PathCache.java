@@ -0,0 +1,217 @@
+package com.company.search;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the results of the queries on one grid, for traffic
+ * that repeats the same queries while the grid changes rarely.
+ *
+ * A result is kept for its start, target and movement mode, together with
+ * the revision of the grid it is known to be right for. When the grid has
+ * changed since then, the result is checked against the cells that changed,
+ * and searched again only if a change may have made it wrong:
+ *  - an obstacle or a higher cost on the path, or, with diagonal movements,
+ *    next to it, where it may close a diagonal move;
+ *  - a cell that became free or cheaper, on the path, or near enough to
+ *    the start and the target that a path through it could be shorter:
+ *    a shorter path through cell x costs at least the distance from the
+ *    start to x plus the distance from x to the target;
+ *  - any cell that became free or cheaper, when there was no path.
+ * Then the result is right for the current revision.
+ * When more than Grid.CHANGES changes are unknown to a result, or the whole
+ * grid changed, it is searched again.
+ *
+ * The least recently used result is evicted when the cache is full.
+ * HPA* is not cached, because its clusters must be told about every change.
+ * The searches of the misses record into the SearchMetrics of the algorithm.
+ * Like the searches, a cache must be used by one thread at a time.
+ */
+public final class PathCache {
+
+    private final Grid grid;
+    private final Algorithm algorithm;
+    private final int capacity; // the largest number of results kept
+
+    // the search without and with diagonal movements, created when needed
+    private final GridSearch[] searches = new GridSearch[2];
+
+    // the results, from the least to the most recently used
+    private final LinkedHashMap<Long, Cached> entries;
+
+    // the statistics of the cache
+    private long hits, misses, evictions, invalidations;
+
+    /**
+     * A result, the revision of the grid it is right for,
+     * and the cells of its path, sorted
+     */
+    private static final class Cached {
+        final SearchResult result;
+        final int[] cells;
+        long revision;
+
+        Cached(SearchResult result, long revision) {
+            this.result = result;
+            this.revision = revision;
+            cells = result.path().clone();
+            Arrays.sort(cells);
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(cells, id) >= 0;
+        }
+    } // end class Cached
+
+    /**
+     * @param capacity the largest number of results kept
+     */
+    public PathCache(Grid grid, Algorithm algorithm, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        if (algorithm == Algorithm.HPA_STAR)
+            throw new IllegalArgumentException("HPA* must be told about the changes of the grid");
+        this.grid = grid;
+        this.algorithm = algorithm;
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+                if (size() <= PathCache.this.capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+        grid.keepChanges();
+    }
+
+    /**
+     * Returns the result of the query from cell 'start' to cell 'target',
+     * from the cache if it is still right, or else from a new search
+     */
+    public SearchResult search(int start, int target, boolean diagonal) {
+        Long key = ((long) start << 32 | target) << 1 | (diagonal ? 1 : 0);
+        long revision = grid.revision();
+        Cached entry = entries.get(key);
+        if (entry != null) {
+            if (entry.revision == revision || stillRight(entry, start, target, diagonal)) {
+                entry.revision = revision;
+                hits++;
+                return entry.result;
+            }
+            invalidations++;
+        }
+        misses++;
+        int mode = diagonal ? 1 : 0;
+        if (searches[mode] == null) {
+            searches[mode] = algorithm.create(grid, diagonal);
+            searches[mode].setMetrics(SearchMetrics.of(algorithm));
+        }
+        SearchResult result = searches[mode].search(start, target);
+        entries.put(key, new Cached(result, revision));
+        return result;
+    } // end search()
+
+    /**
+     * Returns true if none of the changes of the grid since the entry was
+     * known to be right may have made it wrong
+     */
+    private boolean stillRight(Cached entry, int start, int target, boolean diagonal) {
+        GridSearch geometry = searches[diagonal ? 1 : 0];
+        SearchResult result = entry.result;
+        for (long r = entry.revision + 1; r <= grid.revision(); r++) {
+            long change = grid.change(r);
+            if (change == -1)
+                return false;
+            int id = (int) (change >> 1);
+            if (entry.contains(id))
+                return false;
+            if ((change & 1) == 0) {
+                // a new obstacle or a higher cost next to the path
+                // may close a diagonal move of the path
+                if (diagonal && result.found() && touches(entry, id))
+                    return false;
+            } else if (!result.found()
+                    || geometry.distBetween(start, id) + geometry.distBetween(id, target) < result.distance()) {
+                return false;
+            }
+        }
+        return true;
+    } // end stillRight()
+
+    /**
+     * Returns true if an orthogonal neighbor of the cell is on the path
+     */
+    private boolean touches(Cached entry, int id) {
+        int columns = grid.columns();
+        int r = id / columns;
+        int c = id - r * columns;
+        return r > 0 && entry.contains(id - columns)
+                || r < grid.rows() - 1 && entry.contains(id + columns)
+                || c > 0 && entry.contains(id - 1)
+                || c < columns - 1 && entry.contains(id + 1);
+    }
+
+    /**
+     * Removes all the results; the statistics are kept
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of results in the cache
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of queries answered from the cache
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of queries that needed a search
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of results removed because the cache was full
+     */
+    public long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of results removed because the grid changed
+     */
+    public long invalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the fraction of the queries answered from the cache, 0 before the first one
+     */
+    public double hitRate() {
+        long queries = hits + misses;
+        return queries == 0 ? 0 : (double) hits / queries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d results, hit rate %.1f%%, %d evictions, %d invalidations",
+                size(), capacity, 100 * hitRate(), evictions, invalidations);
+    }
+
+} // end class PathCache
@@ -0,0 +1,18 @@
+package com.company.search;
+
+/**
+ * Receives the changes of the cells' state while a search is in progress,
+ * for example to draw the frontier and the closed set.
+ */
+public interface SearchListener {
+
+    /**
+     * Called every time a cell enters the open set, the closed set,
+     * or leaves both of them.
+     *
+     * @param id    the index of the cell
+     * @param state one of GridSearch.UNSEEN, GridSearch.OPEN, GridSearch.CLOSED
+     */
+    void cellChanged(int id, byte state);
+
+} // end interface SearchListener
@@ -0,0 +1,172 @@
+package com.company.search;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of the searches of one algorithm: for every search the nodes
+ * expanded, the successors generated, the operations on the priority
+ * queues, the moves of the path and the time, each in a histogram,
+ * and the number of searches per second.
+ *
+ * There is one instance per algorithm, registered with the platform
+ * MBean server when it is first asked for. A search records into it
+ * after setMetrics(), at the end of every search() call. Recording takes
+ * no locks and allocates nothing, so it can stay on under load, also
+ * when many threads record at once.
+ */
+public final class SearchMetrics implements SearchMetricsMXBean {
+
+    private static final SearchMetrics[] METRICS = new SearchMetrics[Algorithm.values().length];
+
+    private static final long SECOND = 1_000_000_000L; // in nanoseconds
+    private static final int WINDOW = 60; // the seconds of the query rate
+
+    private final Algorithm algorithm;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final Histogram expanded = new Histogram();
+    private final Histogram generated = new Histogram();
+    private final Histogram queueOperations = new Histogram();
+    private final Histogram pathLength = new Histogram();
+    private final Histogram wallTime = new Histogram(); // in nanoseconds
+
+    // the searches of each of the last seconds, in a circle,
+    // and the second each counter belongs to
+    private final AtomicLongArray perSecond = new AtomicLongArray(WINDOW);
+    private final AtomicLongArray second = new AtomicLongArray(WINDOW);
+    private volatile long since; // when the counting of the rate started
+
+    private SearchMetrics(Algorithm algorithm) {
+        this.algorithm = algorithm;
+        clearRate();
+    }
+
+    /**
+     * Returns the metrics of the algorithm, registering them
+     * with the platform MBean server the first time
+     */
+    public static synchronized SearchMetrics of(Algorithm algorithm) {
+        SearchMetrics metrics = METRICS[algorithm.ordinal()];
+        if (metrics == null) {
+            metrics = new SearchMetrics(algorithm);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(
+                        "com.company.search:type=SearchMetrics,algorithm=" + algorithm.name()));
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register the metrics of " + algorithm, e);
+            }
+            METRICS[algorithm.ordinal()] = metrics;
+        }
+        return metrics;
+    } // end of()
+
+    /**
+     * Records one search that ended at time 'end', as given by System.nanoTime()
+     */
+    void record(boolean found, int expanded, long generated, long queueOperations,
+                int pathLength, long nanos, long end) {
+        queries.increment();
+        this.expanded.record(expanded);
+        this.generated.record(generated);
+        this.queueOperations.record(queueOperations);
+        wallTime.record(nanos);
+        if (found) {
+            this.found.increment();
+            this.pathLength.record(pathLength);
+        }
+        // the counter of a new second is cleared by the first search of that second
+        long s = Math.floorDiv(end, SECOND);
+        int i = Math.floorMod(s, WINDOW);
+        long old = second.get(i);
+        if (old != s && second.compareAndSet(i, old, s))
+            perSecond.set(i, 0);
+        perSecond.incrementAndGet(i);
+    } // end record()
+
+    @Override
+    public String getAlgorithm() {
+        return algorithm.name();
+    }
+
+    @Override
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    @Override
+    public long getFound() {
+        return found.sum();
+    }
+
+    @Override
+    public double getQueryRate() {
+        long now = System.nanoTime();
+        long s = Math.floorDiv(now, SECOND);
+        long total = 0;
+        for (int i = 0; i < WINDOW; i++)
+            if (second.get(i) > s - WINDOW)
+                total += perSecond.get(i);
+        // less than a minute of counting divides by the time it took
+        double seconds = Math.min(WINDOW, Math.max(1, (double) (now - since) / SECOND));
+        return total / seconds;
+    } // end getQueryRate()
+
+    @Override
+    public Histogram.Summary getNodesExpanded() {
+        return expanded.summary();
+    }
+
+    @Override
+    public Histogram.Summary getNodesGenerated() {
+        return generated.summary();
+    }
+
+    @Override
+    public Histogram.Summary getQueueOperations() {
+        return queueOperations.summary();
+    }
+
+    @Override
+    public Histogram.Summary getPathLength() {
+        return pathLength.summary();
+    }
+
+    @Override
+    public Histogram.Summary getWallTimeMicros() {
+        Histogram.Summary nanos = wallTime.summary();
+        return new Histogram.Summary(nanos.getCount(), nanos.getMean() / 1000, nanos.getP50() / 1000,
+                nanos.getP90() / 1000, nanos.getP99() / 1000, nanos.getP999() / 1000, nanos.getMax() / 1000);
+    }
+
+    @Override
+    public void reset() {
+        queries.reset();
+        found.reset();
+        expanded.reset();
+        generated.reset();
+        queueOperations.reset();
+        pathLength.reset();
+        wallTime.reset();
+        clearRate();
+    }
+
+    private void clearRate() {
+        for (int i = 0; i < WINDOW; i++) {
+            second.set(i, Long.MIN_VALUE);
+            perSecond.set(i, 0);
+        }
+        since = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + ": " + getQueries() + " queries, " + String.format("%.1f/s", getQueryRate())
+                + ", expanded " + getNodesExpanded() + ", time (us) " + getWallTimeMicros();
+    }
+
+} // end class SearchMetrics
@@ -0,0 +1,44 @@
+package com.company.search;
+
+/**
+ * The metrics of the searches of one algorithm, as JMX shows them
+ * under com.company.search:type=SearchMetrics,algorithm=NAME.
+ */
+public interface SearchMetricsMXBean {
+
+    String getAlgorithm();
+
+    /**
+     * Returns the number of searches recorded
+     */
+    long getQueries();
+
+    /**
+     * Returns the number of searches that found a path
+     */
+    long getFound();
+
+    /**
+     * Returns the searches per second over the last minute
+     */
+    double getQueryRate();
+
+    Histogram.Summary getNodesExpanded();
+
+    Histogram.Summary getNodesGenerated();
+
+    Histogram.Summary getQueueOperations();
+
+    /**
+     * Returns the number of moves of the paths found
+     */
+    Histogram.Summary getPathLength();
+
+    Histogram.Summary getWallTimeMicros();
+
+    /**
+     * Removes everything recorded so far
+     */
+    void reset();
+
+} // end interface SearchMetricsMXBean
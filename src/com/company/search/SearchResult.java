@@ -0,0 +1,49 @@
+package com.company.search;
+
+/**
+ * The outcome of a search: the path from the start to the target
+ * (empty if there is no path) and some statistics.
+ */
+public final class SearchResult {
+
+    private final boolean found;   // true if the target was reached
+    private final int[] path;      // cell ids from the start to the target
+    private final int expanded;    // the number of nodes that have been expanded
+    private final double distance; // the length of the path
+
+    public SearchResult(boolean found, int[] path, int expanded, double distance) {
+        this.found = found;
+        this.path = path;
+        this.expanded = expanded;
+        this.distance = distance;
+    }
+
+    public boolean found() {
+        return found;
+    }
+
+    public int[] path() {
+        return path;
+    }
+
+    public int expanded() {
+        return expanded;
+    }
+
+    /**
+     * Returns the number of moves of the path
+     */
+    public int steps() {
+        return path.length > 0 ? path.length - 1 : 0;
+    }
+
+    public double distance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Nodes expanded: %d, Steps: %d, Distance: %.3f", expanded, steps(), distance);
+    }
+
+} // end class SearchResult
@@ -0,0 +1,81 @@
+package com.company.search;
+
+import java.util.Arrays;
+
+/**
+ * The data a search keeps for every cell, stored in flat arrays
+ * indexed by cell id instead of one object per state.
+ *
+ * The arrays are allocated once, together with the search.
+ * Clearing them is O(1): every cell carries the number of the search
+ * that last touched it, and the data of a cell touched by an older
+ * search is ignored.
+ */
+final class SearchSpace {
+
+    static final float INFINITY = Float.POSITIVE_INFINITY;
+
+    private final int[] stamp;   // the search that last touched each cell
+    private final byte[] state;  // UNSEEN, OPEN or CLOSED
+    private final int[] parent;  // the predecessor of each cell, -1 if none
+    private final float[] g;     // the distance of each cell from the start
+    private int generation = 1;  // the number of the current search
+
+    SearchSpace(int size) {
+        stamp = new int[size];
+        state = new byte[size];
+        parent = new int[size];
+        g = new float[size];
+    }
+
+    /**
+     * Forgets the data of all the cells
+     */
+    void clear() {
+        if (++generation == 0) {
+            // the counter wrapped around, so old stamps could match again
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Gives a cell its initial data if the current search has not touched it yet
+     */
+    private void touch(int id) {
+        if (stamp[id] != generation) {
+            stamp[id] = generation;
+            state[id] = GridSearch.UNSEEN;
+            parent[id] = -1;
+            g[id] = INFINITY;
+        }
+    }
+
+    byte state(int id) {
+        return stamp[id] == generation ? state[id] : GridSearch.UNSEEN;
+    }
+
+    int parent(int id) {
+        return stamp[id] == generation ? parent[id] : -1;
+    }
+
+    float g(int id) {
+        return stamp[id] == generation ? g[id] : INFINITY;
+    }
+
+    void setState(int id, byte s) {
+        touch(id);
+        state[id] = s;
+    }
+
+    void setParent(int id, int p) {
+        touch(id);
+        parent[id] = p;
+    }
+
+    void setG(int id, float value) {
+        touch(id);
+        g[id] = value;
+    }
+
+} // end class SearchSpace
@@ -0,0 +1,317 @@
+package com.company.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The record of a search as the changes of the states of its cells,
+ * step by step, which a Player can show again at any speed, forward
+ * and backward, without running the algorithm.
+ *
+ * Every change is one varint: the difference from the cell of the
+ * previous change of the same step, in zigzag form, followed by the old
+ * and the new state, two bits each. A step ends with a 0 byte, which
+ * no change can contain: a change always has different old and new
+ * states, and no byte but the first of a varint can be 0. The cells of
+ * a step are usually close together, so most changes take one or two
+ * bytes, a step about eight, and the trace of a search with a million
+ * expanded nodes fits in less than ten megabytes, whatever the size of
+ * the grid. A trace can be saved to a file and loaded again.
+ *
+ * The trace records a search as its listener: call endStep() after
+ * reset() and after every step(), or let record() do it all.
+ */
+public final class SearchTrace implements SearchListener {
+
+    private static final int MAGIC = 0x54524345; // "TRCE"
+    private static final int VERSION = 1;
+    private static final int HEADER = 24;        // the bytes of the header
+
+    private final int rows, columns;
+    private byte[] events = new byte[1024]; // the changes and the ends of the steps
+    private int length;                     // the bytes of 'events' in use
+    private int steps;                      // the number of steps that have ended
+
+    // the state of every cell, while recording, and
+    // the cell of the previous change of the current step
+    private byte[] states;
+    private int last;
+    private boolean loaded; // read from a file, so it cannot record
+
+    public SearchTrace(Grid grid) {
+        this(grid.rows(), grid.columns());
+    }
+
+    private SearchTrace(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Performs a whole search from cell 'start' to cell 'target'
+     * and returns its trace. The listener of the search is kept.
+     */
+    public static SearchTrace record(GridSearch search, int start, int target) {
+        SearchTrace trace = new SearchTrace(search.grid());
+        SearchListener listener = search.listener;
+        search.setListener(listener == null ? trace : (id, state) -> {
+            trace.cellChanged(id, state);
+            listener.cellChanged(id, state);
+        });
+        try {
+            search.reset(start, target);
+            trace.endStep();
+            while (search.status() == GridSearch.RUNNING) {
+                search.step();
+                trace.endStep();
+            }
+        } finally {
+            search.setListener(listener);
+        }
+        return trace;
+    } // end record()
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of steps recorded
+     */
+    public int steps() {
+        return steps;
+    }
+
+    /**
+     * Returns the number of bytes of the recorded changes
+     */
+    public int bytes() {
+        return length;
+    }
+
+    @Override
+    public void cellChanged(int id, byte state) {
+        if (loaded)
+            throw new IllegalStateException("A trace read from a file cannot record");
+        if (states == null)
+            states = new byte[rows * columns];
+        byte old = states[id];
+        if (old == state)
+            return;
+        states[id] = state;
+        int delta = id - last;
+        last = id;
+        put(((long) ((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL) << 4 | old << 2 | state);
+    } // end cellChanged()
+
+    /**
+     * Ends the current step: the changes since the end of the previous one
+     */
+    public void endStep() {
+        if (loaded)
+            throw new IllegalStateException("A trace read from a file cannot record");
+        put(0);
+        last = 0;
+        steps++;
+    }
+
+    /**
+     * Adds a varint to the events
+     */
+    private void put(long value) {
+        if (length + 10 > events.length)
+            events = Arrays.copyOf(events, 2 * events.length);
+        while ((value & ~0x7FL) != 0) {
+            events[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        events[length++] = (byte) value;
+    } // end put()
+
+    /**
+     * Returns a player at the beginning of the trace, before the first step
+     */
+    public Player player() {
+        return new Player();
+    }
+
+    /**
+     * Writes the trace to the file, replacing it if it exists
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION)
+                    .putInt(rows).putInt(columns).putInt(steps).putInt(length).flip();
+            ByteBuffer body = ByteBuffer.wrap(events, 0, length);
+            while (header.hasRemaining() || body.hasRemaining())
+                channel.write(new ByteBuffer[] {header, body});
+        }
+    } // end save()
+
+    /**
+     * Reads a trace saved by save(). The trace can be replayed, but not recorded further.
+     *
+     * @throws IOException if the file is not a trace
+     */
+    public static SearchTrace load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0);
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC)
+                throw new IOException("Not a trace file: " + file);
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unknown version of trace file: " + version);
+            int rows = header.getInt(), columns = header.getInt();
+            int steps = header.getInt(), length = header.getInt();
+            if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE
+                    || steps < 0 || length < steps || channel.size() != HEADER + (long) length)
+                throw new IOException("Damaged trace file: " + file);
+            SearchTrace trace = new SearchTrace(rows, columns);
+            trace.events = new byte[Math.max(length, 1)];
+            ByteBuffer body = ByteBuffer.wrap(trace.events, 0, length);
+            while (body.hasRemaining() && channel.read(body) >= 0);
+            trace.length = length;
+            trace.steps = steps;
+            trace.loaded = true;
+            return trace;
+        }
+    } // end load()
+
+    /**
+     * Shows a trace again, from any step to any other, telling its listener
+     * about every cell that changes. It keeps the state of every cell,
+     * one byte each, and where it is in the trace.
+     */
+    public final class Player {
+
+        private final byte[] cells = new byte[rows * columns]; // the state of every cell
+        private int position; // the number of steps played
+        private int offset;   // where the next step begins in the events
+
+        private SearchListener listener;
+
+        // the changes of the step being undone
+        private int[] undo = new int[64];
+
+        private Player() {
+        }
+
+        public void setListener(SearchListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Returns the number of steps played
+         */
+        public int position() {
+            return position;
+        }
+
+        /**
+         * Returns the state of the cell after the steps played
+         */
+        public byte state(int id) {
+            return cells[id];
+        }
+
+        /**
+         * Plays the next step
+         *
+         * @return false if all the steps have been played
+         */
+        public boolean stepForward() {
+            if (position == steps)
+                return false;
+            int id = 0;
+            while (true) {
+                long value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = events[offset++];
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                if (value == 0)
+                    break;
+                int zigzag = (int) (value >>> 4);
+                id += (zigzag >>> 1) ^ -(zigzag & 1);
+                change(id, (byte) (value & 3));
+            }
+            position++;
+            return true;
+        } // end stepForward()
+
+        /**
+         * Undoes the last step played
+         *
+         * @return false if no step has been played
+         */
+        public boolean stepBack() {
+            if (position == 0)
+                return false;
+            // the step begins after the end of the one before it
+            int end = offset - 1;
+            int begin = end;
+            while (begin > 0 && events[begin - 1] != 0)
+                begin--;
+            // its changes are undone from the last one
+            int n = 0;
+            int id = 0;
+            for (int i = begin; i < end; ) {
+                long value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = events[i++];
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                int zigzag = (int) (value >>> 4);
+                id += (zigzag >>> 1) ^ -(zigzag & 1);
+                if (n + 2 > undo.length)
+                    undo = Arrays.copyOf(undo, 2 * undo.length);
+                undo[n++] = id;
+                undo[n++] = (int) (value >>> 2 & 3);
+            }
+            while (n > 0) {
+                byte old = (byte) undo[--n];
+                change(undo[--n], old);
+            }
+            offset = begin;
+            position--;
+            return true;
+        } // end stepBack()
+
+        /**
+         * Plays or undoes steps up to the given one
+         */
+        public void seek(int step) {
+            if (step < 0 || step > steps)
+                throw new IllegalArgumentException("Step " + step + " of a trace of " + steps);
+            while (position < step)
+                stepForward();
+            while (position > step)
+                stepBack();
+        }
+
+        private void change(int id, byte state) {
+            cells[id] = state;
+            if (listener != null)
+                listener.cellChanged(id, state);
+        }
+
+    } // end class Player
+
+} // end class SearchTrace